@@ -0,0 +1,135 @@
+package org.source.utility.assign;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assign 端到端基准测试
+ * <p>
+ * 使用合成的 fetcher，覆盖 mainData 大小、Action 数量、batchSize、缓存（关闭 / 命中 / 未命中）以及
+ * 串行 / {@code parallel()} / {@code parallelVirtual()} 三种执行方式，
+ * 主要度量 {@code Acquire.fetch}、{@code Assign.invokeMain}、{@code Assign.parallelExecute} 等热点路径。
+ * </p>
+ *
+ * @author zengfugen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssignBenchmark {
+    private static final int MAX_ACTIONS = 5;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"1", "5"})
+    private int actions;
+
+    /**
+     * 0 表示不分批
+     */
+    @Param({"0", "500"})
+    private int batchSize;
+
+    /**
+     * 缓存：NONE 不开启；WARM 每轮测试开始前写入全部数据，度量缓存命中；
+     * COLD 每次调用在方法内创建新的缓存处理器，度量未命中后写入的开销
+     */
+    @Param({"NONE", "WARM", "COLD"})
+    private String cache;
+
+    @Param({"SEQUENTIAL", "PARALLEL", "VIRTUAL"})
+    private String mode;
+
+    /**
+     * 是否合并编译赋值操作
+     */
+    @Param({"false", "true"})
+    private boolean compiled;
+
+    private List<Row> rows;
+
+    private CacheHandler cacheHandler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int distinctKeys = Math.max(1, this.size / 10);
+        Random random = new Random(42);
+        this.rows = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            Row row = new Row();
+            for (int j = 0; j < MAX_ACTIONS; j++) {
+                row.keys[j] = random.nextInt(distinctKeys);
+            }
+            this.rows.add(row);
+        }
+        this.cacheHandler = new BoundedCacheHandler(this.size);
+        // 执行一次写入缓存，之后的调用全部命中
+        if ("WARM".equals(this.cache)) {
+            this.invoke();
+        }
+    }
+
+    @Benchmark
+    public List<Row> invoke() {
+        Assign<Row> assign = Assign.build(this.rows).name("AssignBenchmark");
+        switch (this.mode) {
+            case "PARALLEL" -> assign.parallel();
+            case "VIRTUAL" -> assign.parallelVirtual();
+            default -> {
+                // 串行执行
+            }
+        }
+        Acquire<Row, Integer, Target> acquire = assign.addAcquire(AssignBenchmark::fetch).name("target");
+        if (this.batchSize > 0) {
+            acquire.batchSize(this.batchSize);
+        }
+        switch (this.cache) {
+            case "WARM" -> acquire.cache(this.cacheHandler);
+            case "COLD" -> acquire.cache(new BoundedCacheHandler(this.size));
+            default -> {
+                // 不开启缓存
+            }
+        }
+        if (this.compiled) {
+            acquire.compiled();
+        }
+        for (int i = 0; i < this.actions; i++) {
+            int index = i;
+            acquire.addAction(r -> r.keys[index])
+                    .addAssemble(Target::getName, (r, v) -> r.values[index] = v);
+        }
+        assign.invoke();
+        return this.rows;
+    }
+
+    private static Map<Integer, Target> fetch(Collection<Integer> keys) {
+        Map<Integer, Target> result = HashMap.newHashMap(keys.size());
+        for (Integer key : keys) {
+            result.put(key, new Target(key));
+        }
+        return result;
+    }
+
+    public static class Row {
+        final int[] keys = new int[MAX_ACTIONS];
+        final String[] values = new String[MAX_ACTIONS];
+    }
+
+    public static class Target {
+        private final String name;
+
+        Target(int key) {
+            this.name = "target_" + key;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.source.utility.assign;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Assign.parallelExecute} 基准测试
+ * <p>
+ * 度量单任务、少量任务时串行与线程池执行的固定开销。
+ * </p>
+ *
+ * @author zengfugen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelExecuteBenchmark {
+
+    @Param({"1", "2", "16"})
+    private int tasks;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private List<Integer> ts;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.ts = new ArrayList<>(this.tasks);
+        for (int i = 0; i < this.tasks; i++) {
+            this.ts.add(i);
+        }
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Benchmark
+    public void parallelExecute(Blackhole blackhole) {
+        Assign.<Integer, Integer>parallelExecute(this.ts, i -> {
+            blackhole.consume(i);
+            return i;
+        }, this.parallel ? this.executor : null, 30, null, null);
+    }
+}
@@ -4,11 +4,15 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.JavaType;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.Nullable;
+import org.source.utility.assign.metrics.MetricsRegistry;
+import org.source.utility.assign.trace.TraceContext;
+import org.source.utility.assign.trace.Tracer;
 import org.source.utility.constant.Constants;
 import org.source.utility.enums.BaseExceptionEnum;
 import org.source.utility.exception.BaseException;
@@ -16,9 +20,10 @@ import org.source.utility.utils.*;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * 数据获取与赋值配置类
@@ -33,8 +38,8 @@ import java.util.stream.Collectors;
  * @author zengfugen
  */
 @Slf4j
-@JsonIncludeProperties({"name", "executedName", "success", "batchSize", "timeout", "fetchTiming", "invokeTiming", "actions"})
-@JsonPropertyOrder({"name", "executedName", "success", "batchSize", "timeout", "fetchTiming", "invokeTiming", "actions"})
+@JsonIncludeProperties({"name", "executedName", "success", "batchSize", "timeout", "fetchedSize", "fetchTiming", "invokeTiming", "actions"})
+@JsonPropertyOrder({"name", "executedName", "success", "batchSize", "timeout", "fetchedSize", "fetchTiming", "invokeTiming", "actions"})
 public class Acquire<E, K, T> {
     /**
      * 默认异常处理器
@@ -90,11 +95,24 @@ public class Acquire<E, K, T> {
      */
     private @Nullable Map<K, T> ktMap;
 
+    /**
+     * 预先收集的 Key
+     * <p>
+     * 与独立分支、独立子任务同时获取数据时，在调用线程中提前收集，获取数据时不再读取主数据。
+     * </p>
+     */
+    private @Nullable Set<K> snapshotKeys;
+
     /**
      * 缓存处理器
      */
     private @Nullable CacheHandler cacheHandler;
 
+    /**
+     * 缓存名称，为空时使用 {assignName}_{acquireName}
+     */
+    private @Nullable String cacheName;
+
     /**
      * 后置处理器
      * <p>
@@ -111,7 +129,7 @@ public class Acquire<E, K, T> {
     /**
      * 执行过程中发生的异常
      */
-    private @Nullable Throwable throwable;
+    private volatile @Nullable Throwable throwable;
 
     /**
      * 是否抛出异常
@@ -133,6 +151,91 @@ public class Acquire<E, K, T> {
     @Getter
     private long timeout;
 
+    /**
+     * 执行优先级，为空时继承所属 Assign 的设置
+     */
+    private @Nullable PriorityEnum priority;
+
+    /**
+     * 是否通过 {@link #name(String)} 设置了名称
+     */
+    private boolean named;
+
+    /**
+     * 是否延迟获取：执行时不获取数据，首次读取延迟赋值的字段时才获取
+     */
+    @Getter
+    private boolean lazy;
+
+    /**
+     * 是否合并编译 Action 的赋值操作
+     */
+    private boolean compiled;
+
+    /**
+     * 获取结果是否已释放
+     */
+    private volatile boolean released;
+
+    /**
+     * 释放获取结果时记录的获取数量
+     */
+    private int releasedSize;
+
+    /**
+     * 内存中最多保存的获取结果数量，超出后写入临时文件，为空时全部保存在内存中
+     */
+    private @Nullable Integer spillThreshold;
+
+    /**
+     * 写入临时文件时值的类型
+     */
+    private @Nullable JavaType spillType;
+
+    /**
+     * 是否因没有为请求的字段赋值而被裁剪，被裁剪时不获取数据也不赋值
+     */
+    @Getter
+    private boolean pruned;
+
+    /**
+     * 延迟获取是否已完成
+     */
+    private volatile boolean loaded;
+
+    /**
+     * 延迟获取完成前通过增量执行（{@link Assign#invokeDelta(Collection)}）加入的数据，获取时与主数据一起赋值
+     */
+    private final List<E> lazyDelta = new ArrayList<>();
+
+    /**
+     * 延迟获取的锁，不使用 synchronized，避免虚拟线程在获取数据期间固定（pin）载体线程
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * 数据源标识，合并获取（{@link Assign#mergeFetch()}）时，标识相同的 Acquire 合并为一次获取
+     */
+    private @Nullable Object fetcherIdentity;
+
+    /**
+     * 合并获取时请求过的 key
+     * <p>
+     * 合并获取在上级赋值之前收集 key，执行时主数据中新出现的 key 不在其中，由当前 Acquire 单独获取。
+     * </p>
+     */
+    private @Nullable Set<?> mergedKeys;
+
+    /**
+     * 合并获取时共用结果的 Acquire 中尚未释放的数量，最后一个释放时关闭溢出到磁盘的结果
+     */
+    private @Nullable AtomicInteger mergedHolders;
+
+    /**
+     * 指标标签缓存
+     */
+    private String @Nullable [] metricsTags;
+
     /**
      * 执行名称
      * <p>
@@ -151,9 +254,12 @@ public class Acquire<E, K, T> {
 
     /**
      * invoke 方法累计时间统计
+     * <p>
+     * 聚合所有主数据的赋值耗时，而不是只保留最后一条数据的耗时。
+     * </p>
      */
     @Getter
-    private @Nullable Timing invokeTiming;
+    private final AggregateTiming invokeTiming;
 
     /**
      * 构造函数
@@ -174,7 +280,9 @@ public class Acquire<E, K, T> {
         this.fetcher = fetcher;
         this.actions = new ArrayList<>();
         this.name = "Acquire_" + this.hashCode();
+        this.fetcherIdentity = Objects.nonNull(batchFetcher) ? batchFetcher : fetcher;
         this.timeout = assign.getTimeout();
+        this.invokeTiming = Timings.aggregate();
     }
 
     /**
@@ -206,9 +314,310 @@ public class Acquire<E, K, T> {
      */
     public Acquire<E, K, T> name(String name) {
         this.name = name;
+        this.named = true;
         return this;
     }
 
+    /**
+     * 延迟获取
+     * <p>
+     * Assign 执行时不请求数据源，只为 {@link Action#addLazyAssemble(Function, BiConsumer)} 添加的字段设置 Supplier；
+     * 首次读取任一字段（或调用 {@link #load()}）时对所属 Assign 的全部数据获取一次，并执行普通的赋值操作。
+     * </p>
+     *
+     * @return this
+     */
+    public Acquire<E, K, T> lazy() {
+        this.lazy = true;
+        return this;
+    }
+
+    /**
+     * 获取延迟获取的数据，未获取时对所属 Assign 的全部数据获取一次并执行赋值，并发调用时只获取一次
+     *
+     * @return Key 到关联数据的映射
+     */
+    public Map<K, T> load() {
+        if (!this.loaded) {
+            this.loadLock.lock();
+            try {
+                if (!this.loaded) {
+                    this.doLoad();
+                }
+            } finally {
+                this.loadLock.unlock();
+            }
+        }
+        return Objects.requireNonNullElse(this.ktMap, Map.of());
+    }
+
+    private void doLoad() {
+        Collection<E> es = this.assign.mainData();
+        if (!this.lazyDelta.isEmpty()) {
+            // 变更的数据可能已在主数据中，按对象去重
+            Set<E> seen = Collections.newSetFromMap(new IdentityHashMap<>(es.size() + this.lazyDelta.size()));
+            List<E> all = new ArrayList<>(es.size() + this.lazyDelta.size());
+            for (E e : es) {
+                if (seen.add(e)) {
+                    all.add(e);
+                }
+            }
+            for (E e : this.lazyDelta) {
+                if (seen.add(e)) {
+                    all.add(e);
+                }
+            }
+            this.lazyDelta.clear();
+            es = all;
+        }
+        Map<K, T> kt = this.fetch(es);
+        if (this.lazy) {
+            for (E e : es) {
+                long start = this.invokeTiming.start();
+                if (this.isSuccess()) {
+                    for (Action<E, K, T> action : this.actions) {
+                        action.invoke(e, kt);
+                    }
+                }
+                this.after(e);
+                this.invokeTiming.end(start);
+            }
+        }
+        this.loaded = true;
+    }
+
+    /**
+     * 合并编译所有 Action（含之后添加的）的赋值操作，见 {@link Action#compiled()}
+     *
+     * @return this
+     */
+    public Acquire<E, K, T> compiled() {
+        this.compiled = true;
+        this.actions.forEach(Action::compiled);
+        return this;
+    }
+
+    /**
+     * 获取结果超出内存上限后写入临时文件
+     * <p>
+     * 前 maxInMemory 条获取结果保存在内存中，之后的结果以 JSON 写入临时文件，赋值时按索引读取并反序列化；
+     * key 及其索引仍保存在内存中。适用于千万级导出等获取结果无法全部放入内存的场景。
+     * 临时文件在 Acquire 不可达后删除。
+     * </p>
+     *
+     * @param maxInMemory 内存中最多保存的获取结果数量
+     * @param valueType   获取结果的类型，用于反序列化
+     * @return this
+     */
+    public Acquire<E, K, T> spill(int maxInMemory, Class<T> valueType) {
+        return this.spill(maxInMemory, Jsons.getJavaType(valueType));
+    }
+
+    /**
+     * 获取结果超出内存上限后写入临时文件，适用于泛型的获取结果（如 {@code List<T>}）
+     *
+     * @param maxInMemory 内存中最多保存的获取结果数量
+     * @param valueType   获取结果的类型，用于反序列化
+     * @return this
+     * @see #spill(int, Class)
+     */
+    public Acquire<E, K, T> spill(int maxInMemory, JavaType valueType) {
+        BaseExceptionEnum.SIZE_MIN.isTrue(maxInMemory >= 0, "maxInMemory: {} must not be negative", maxInMemory);
+        this.spillThreshold = maxInMemory;
+        this.spillType = valueType;
+        return this;
+    }
+
+    /**
+     * 创建保存获取结果的 Map，支持多线程写入
+     *
+     * @param expectedSize 预计数据量
+     * @return Map
+     */
+    private Map<K, T> newKtMap(int expectedSize) {
+        if (Objects.nonNull(this.spillThreshold) && Objects.nonNull(this.spillType) && expectedSize > this.spillThreshold) {
+            return new SpillableMap<>(this.spillThreshold, this.spillType);
+        }
+        return new ConcurrentHashMap<>(expectedSize);
+    }
+
+    /**
+     * 补充获取时写入的 Map：支持多线程写入的 Map（包括合并获取由多个 Acquire 共用的结果）直接写入，
+     * 其他 Map（如空结果）复制后写入
+     *
+     * @param existing 已获取的结果
+     * @param added    补充的数据量
+     * @return Map
+     */
+    private Map<K, T> writableKtMap(Map<K, T> existing, int added) {
+        if (existing instanceof ConcurrentHashMap<K, T> || existing instanceof SpillableMap<K, T>) {
+            return existing;
+        }
+        Map<K, T> kt = this.newKtMap(existing.size() + added);
+        kt.putAll(existing);
+        return kt;
+    }
+
+    private void recordSpilled(MetricsRegistry registry, Map<?, ?> kt) {
+        if (kt instanceof SpillableMap<?, ?> spillableMap && spillableMap.spilledSize() > 0) {
+            registry.counter(MetricsRegistry.ACQUIRE_SPILLED, this.metricsTags()).increment(spillableMap.spilledSize());
+        }
+    }
+
+    /**
+     * 按请求的字段裁剪
+     * <p>
+     * 没有为请求的字段赋值（且没有后置处理）的 Acquire 被裁剪；目标字段未知的赋值操作视为需要。
+     * 延迟获取的 Acquire 不会被裁剪，有字段被请求时不再延迟，与其他 Acquire 一起获取。
+     * </p>
+     *
+     * @param fields 请求的字段
+     */
+    void select(Set<String> fields) {
+        if (this.lazy) {
+            for (Action<E, K, T> action : this.actions) {
+                if (action.isRequested(fields)) {
+                    this.lazy = false;
+                    return;
+                }
+            }
+            return;
+        }
+        if (this.pruned || Objects.nonNull(this.afterProcessor)) {
+            return;
+        }
+        for (Action<E, K, T> action : this.actions) {
+            if (action.isRequired(fields)) {
+                return;
+            }
+        }
+        this.pruned = true;
+        this.assign.getMetricsRegistry().counter(MetricsRegistry.ACQUIRE_PRUNED, this.metricsTags()).increment();
+    }
+
+    /**
+     * 设置数据源标识，用于合并获取
+     *
+     * @param fetcherIdentity 数据源标识，如用户传入的 fetcher
+     * @return this
+     */
+    Acquire<E, K, T> fetcherIdentity(Object fetcherIdentity) {
+        this.fetcherIdentity = fetcherIdentity;
+        return this;
+    }
+
+    /**
+     * 合并获取的分组标识：数据源标识，设置了名称时为名称与数据源标识
+     *
+     * @return 分组标识
+     */
+    @Nullable Object mergeKey() {
+        Object identity = this.fetcherIdentity;
+        if (Objects.isNull(identity)) {
+            return null;
+        }
+        return this.named ? List.of(this.name, identity) : identity;
+    }
+
+    /**
+     * 合并获取：以第一个 Acquire 的设置（分批、缓存、超时等）对所有 Acquire 的 key 的并集获取一次数据，
+     * 结果作为每个 Acquire 的 ktMap，各自的 Action 照常赋值；执行时新出现的 key 由各 Acquire 在 {@link #fetch(Collection)} 中补充获取
+     *
+     * @param group 分组标识相同的 Acquire，至少两个
+     * @param <E>   主数据类型
+     */
+    @SuppressWarnings("unchecked")
+    static <E> void fetchMerged(List<Acquire<E, ?, ?>> group) {
+        List<Acquire<E, Object, Object>> acquires = (List<Acquire<E, Object, Object>>) (List<?>) group;
+        Acquire<E, Object, Object> leader = acquires.getFirst();
+        Set<Object> ks = new HashSet<>();
+        for (Acquire<E, Object, Object> acquire : acquires) {
+            if (CollectionUtils.isNotEmpty(acquire.actions)) {
+                ks.addAll(acquire.collectKeys(acquire.assign.mainData()));
+            }
+        }
+        FairScheduler.@Nullable Lane lane = leader.assign.openLane(leader.getPriority(), leader.name);
+        try {
+            leader.assign.traced(Tracer.SPAN_ACQUIRE_FETCH, span -> {
+                leader.fetchTiming = Timings.start();
+                Map<Object, Object> kt = leader.newKtMap(ks.size());
+                if (!ks.isEmpty()) {
+                    leader.fetchKeys(kt, ks);
+                }
+                leader.fetchTiming.end();
+                MetricsRegistry registry = leader.assign.getMetricsRegistry();
+                registry.timer(MetricsRegistry.ACQUIRE_FETCH, leader.metricsTags())
+                        .record(Objects.requireNonNull(leader.fetchTiming.getDuration()).toNanos());
+                registry.counter(MetricsRegistry.ACQUIRE_MERGED, leader.metricsTags()).increment(acquires.size() - 1L);
+                leader.recordSpilled(registry, kt);
+                if (!leader.isSuccess()) {
+                    registry.counter(MetricsRegistry.ACQUIRE_FAILURES, leader.metricsTags()).increment();
+                }
+                AtomicInteger holders = new AtomicInteger(acquires.size());
+                for (Acquire<E, Object, Object> acquire : acquires) {
+                    acquire.mergedHolders = holders;
+                    acquire.fetchTiming = leader.fetchTiming;
+                    acquire.throwable = leader.throwable;
+                    acquire.mergedKeys = ks;
+                    acquire.ktMap = kt;
+                }
+                span.tag("size", String.valueOf(kt.size())).tag("merged", String.valueOf(acquires.size()));
+                return null;
+            }, "assign", leader.assign.getName(), "acquire", leader.name);
+        } finally {
+            if (Objects.nonNull(lane)) {
+                lane.close();
+            }
+        }
+    }
+
+    /**
+     * 获取到的关联数据数量，获取结果释放后仍保留
+     *
+     * @return 数量
+     */
+    public int getFetchedSize() {
+        Map<K, T> kt = this.ktMap;
+        return Objects.isNull(kt) ? this.releasedSize : kt.size();
+    }
+
+    /**
+     * 释放获取结果，见 {@link Assign#releaseFetched()}
+     * <p>
+     * 有延迟赋值的 Acquire 不释放：Supplier 读取时仍需要获取结果。
+     * 合并获取的结果由多个 Acquire 共用，其他 Acquire 赋值完成后才会被回收。
+     * 溢出到磁盘的结果（{@link SpillableMap}）在释放时关闭并删除临时文件；合并获取的结果在共用的 Acquire 全部释放后关闭，
+     * 其中有不释放的 Acquire 时由 GC 回收。
+     * </p>
+     */
+    void release() {
+        Map<K, T> kt = this.ktMap;
+        if (Objects.isNull(kt) || this.lazy) {
+            return;
+        }
+        for (Action<E, K, T> action : this.actions) {
+            if (action.hasLazyAssembles()) {
+                return;
+            }
+        }
+        this.releasedSize += kt.size();
+        this.ktMap = null;
+        this.released = true;
+        AtomicInteger holders = this.mergedHolders;
+        if (kt instanceof SpillableMap<K, T> spillableMap && (Objects.isNull(holders) || holders.decrementAndGet() == 0)) {
+            spillableMap.close();
+        }
+    }
+
+    /**
+     * 是否已获取数据
+     *
+     * @return 已获取返回 true
+     */
+    boolean isFetched() {
+        return Objects.nonNull(this.ktMap) || this.released;
+    }
+
     /**
      * 设置超时时间
      *
@@ -224,6 +633,26 @@ public class Acquire<E, K, T> {
         return this;
     }
 
+    /**
+     * 设置执行优先级，覆盖所属 Assign 的设置，对分批请求、单条查询等并行任务生效
+     *
+     * @param priority 优先级
+     * @return this，支持链式调用
+     */
+    public Acquire<E, K, T> priority(PriorityEnum priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * 获取执行优先级，未设置时取所属 Assign 的设置
+     *
+     * @return PriorityEnum
+     */
+    public PriorityEnum getPriority() {
+        return Objects.nonNull(this.priority) ? this.priority : this.assign.getPriority();
+    }
+
     /**
      * 设置后置处理器
      * <p>
@@ -285,6 +714,9 @@ public class Acquire<E, K, T> {
      */
     public Action<E, K, T> addAction(Function<E, @Nullable K> keyGetter) {
         Action<E, K, T> action = new Action<>(this, keyGetter);
+        if (this.compiled) {
+            action.compiled();
+        }
         this.actions.add(action);
         return action;
     }
@@ -309,68 +741,269 @@ public class Acquire<E, K, T> {
      * @return Key 到关联数据的映射
      */
     Map<K, T> fetch(Collection<E> mainData) {
+        FairScheduler.@Nullable Lane lane = this.assign.openLane(this.getPriority(), this.name);
+        try {
+            if (!this.assign.isTracing()) {
+                return this.doFetch(mainData);
+            }
+            return this.assign.traced(Tracer.SPAN_ACQUIRE_FETCH, span -> {
+                Map<K, T> result = this.doFetch(mainData);
+                span.tag("size", String.valueOf(result.size())).tag("success", String.valueOf(this.isSuccess()));
+                return result;
+            }, "assign", this.assign.getName(), "acquire", this.name);
+        } finally {
+            if (Objects.nonNull(lane)) {
+                lane.close();
+            }
+        }
+    }
+
+    private Map<K, T> doFetch(Collection<E> mainData) {
         log.debug("Acquire name:{}", name);
-        this.fetchTiming = Timings.start();
         if (StringUtils.isBlank(this.executedName)) {
             this.executedName = Strings.format("{}:{}[{}][{}]", this.assign.getName(), this.name,
                     this.assign.acquireCounter.getAndIncrement(), Thread.currentThread().getName());
         }
-        if (Objects.nonNull(this.ktMap)) {
-            this.fetchTiming.end();
-            return this.ktMap;
+        // 已获取（如合并获取）时保留获取耗时
+        Map<K, T> existing = this.ktMap;
+        if (Objects.nonNull(existing)) {
+            Set<?> requested = this.mergedKeys;
+            if (Objects.nonNull(requested)) {
+                this.mergedKeys = null;
+                this.fetchMergedMissing(existing, requested, mainData);
+            }
+            return Objects.requireNonNull(this.ktMap);
         }
+        if (this.released) {
+            return Map.of();
+        }
+        this.fetchTiming = Timings.start();
         if (CollectionUtils.isEmpty(this.actions)) {
             this.ktMap = Map.of();
             this.fetchTiming.end();
             return this.ktMap;
         }
-        Set<K> ks = mainData.stream().map(k -> Streams.map(this.actions, a -> a.getKeyGetter().apply(k)).toList())
-                .flatMap(Collection::stream).collect(Collectors.toSet());
+        Set<K> ks = this.takeKeys(mainData);
         if (CollectionUtils.isEmpty(ks)) {
             this.ktMap = Map.of();
             this.fetchTiming.end();
             return this.ktMap;
         }
+        // 在分发到各线程之前创建，fetchData 中无需加锁，避免 synchronized 在虚拟线程下占用（pin）载体线程
+        Map<K, T> kt = this.newKtMap(ks.size());
+        this.ktMap = kt;
+        this.fetchKeys(kt, ks);
+        this.fetchTiming.end();
+        MetricsRegistry registry = this.assign.getMetricsRegistry();
+        registry.timer(MetricsRegistry.ACQUIRE_FETCH, this.metricsTags())
+                .record(Objects.requireNonNull(this.fetchTiming.getDuration()).toNanos());
+        this.recordSpilled(registry, kt);
+        if (!this.isSuccess()) {
+            registry.counter(MetricsRegistry.ACQUIRE_FAILURES, this.metricsTags()).increment();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("fetch result: {}", Jsons.str(this.ktMap));
+        }
+        return this.ktMap;
+    }
+
+    /**
+     * 合并获取的 key 在上级赋值之前收集，执行时为主数据中未请求过的 key 补充获取
+     *
+     * @param existing  合并获取的结果
+     * @param requested 合并获取时请求过的 key
+     * @param mainData  主数据集合
+     */
+    private void fetchMergedMissing(Map<K, T> existing, Set<?> requested, Collection<E> mainData) {
+        if (this.released || CollectionUtils.isEmpty(this.actions)) {
+            return;
+        }
+        Set<K> missing = this.takeKeys(mainData);
+        // 同组的其他 Acquire 可能已补充获取
+        missing.removeIf(k -> requested.contains(k) || existing.containsKey(k));
+        if (missing.isEmpty()) {
+            return;
+        }
+        // 同组 Acquire 的数据源相同，补充的数据直接写入共用的结果
+        Map<K, T> kt = this.writableKtMap(existing, missing.size());
+        this.fetchKeys(kt, missing);
+        this.ktMap = kt;
+        if (!this.isSuccess()) {
+            this.assign.getMetricsRegistry().counter(MetricsRegistry.ACQUIRE_FAILURES, this.metricsTags()).increment();
+        }
+    }
+
+    /**
+     * 增量执行：只为变更的数据获取尚未获取过的 key，已获取的数据直接复用，然后为变更的数据赋值
+     * <p>
+     * 上次获取失败的 key 不在 ktMap 中，会重新获取；数据源中不存在的 key 每次都会重新请求。
+     * </p>
+     *
+     * @param es 变更或新增的数据
+     */
+    void invokeDelta(Collection<E> es) {
+        if (this.pruned || CollectionUtils.isEmpty(this.actions)) {
+            return;
+        }
+        if (this.lazy && !this.loaded) {
+            this.loadLock.lock();
+            try {
+                // 只设置 Supplier，数据在首次读取时与主数据一起获取
+                if (!this.loaded) {
+                    this.lazyDelta.addAll(es);
+                    es.forEach(this::invoke);
+                    return;
+                }
+            } finally {
+                this.loadLock.unlock();
+            }
+        }
+        Map<K, T> existing = Objects.requireNonNullElse(this.ktMap, Map.of());
+        Set<K> missing = this.collectKeys(es);
+        missing.removeIf(existing::containsKey);
+        if (!missing.isEmpty()) {
+            FairScheduler.@Nullable Lane lane = this.assign.openLane(this.getPriority(), this.name);
+            try {
+                this.assign.traced(Tracer.SPAN_ACQUIRE_FETCH, span -> {
+                    this.throwable = null;
+                    Map<K, T> kt = this.writableKtMap(existing, missing.size());
+                    this.fetchKeys(kt, missing);
+                    this.ktMap = kt;
+                    if (!this.isSuccess()) {
+                        this.assign.getMetricsRegistry().counter(MetricsRegistry.ACQUIRE_FAILURES, this.metricsTags()).increment();
+                    }
+                    span.tag("size", String.valueOf(missing.size())).tag("delta", "true");
+                    return null;
+                }, "assign", this.assign.getName(), "acquire", this.name);
+            } finally {
+                if (Objects.nonNull(lane)) {
+                    lane.close();
+                }
+            }
+        }
+        for (E e : es) {
+            this.invoke(e);
+        }
+    }
+
+    /**
+     * 在启动与数据获取并行的任务之前收集 key，之后获取数据时使用收集的结果
+     *
+     * @param mainData 主数据集合
+     */
+    void snapshotKeys(Collection<E> mainData) {
+        if ((Objects.isNull(this.ktMap) || Objects.nonNull(this.mergedKeys))
+                && !this.released && CollectionUtils.isNotEmpty(this.actions)) {
+            this.snapshotKeys = this.collectKeys(mainData);
+        }
+    }
+
+    /**
+     * 取出预先收集的 key，没有时从主数据中收集
+     *
+     * @param mainData 主数据集合
+     * @return Key 集合
+     */
+    private Set<K> takeKeys(Collection<E> mainData) {
+        Set<K> ks = this.snapshotKeys;
+        this.snapshotKeys = null;
+        return Objects.isNull(ks) ? this.collectKeys(mainData) : ks;
+    }
+
+    /**
+     * 收集主数据中所有 Action 的 key
+     *
+     * @param mainData 主数据集合
+     * @return Key 集合，不包含 null
+     */
+    Set<K> collectKeys(Collection<E> mainData) {
+        Set<K> ks = HashSet.newHashSet(mainData.size());
+        for (E e : mainData) {
+            for (Action<E, K, T> action : this.actions) {
+                K k = action.getKeyGetter().apply(e);
+                if (Objects.nonNull(k)) {
+                    ks.add(k);
+                }
+            }
+        }
+        return ks;
+    }
+
+    /**
+     * 按分批设置从缓存或数据源获取数据，写入 kt
+     *
+     * @param kt 结果映射
+     * @param ks Key 集合
+     */
+    private void fetchKeys(Map<K, T> kt, Collection<K> ks) {
+        MetricsRegistry registry = this.assign.getMetricsRegistry();
+        registry.counter(MetricsRegistry.ACQUIRE_KEYS, this.metricsTags()).increment(ks.size());
+        // 请求范围内已由同名 Acquire 请求过的 key 不再请求
+        FetchScope scope = this.named ? this.assign.getFetchScope() : null;
+        Collection<K> missed = ks;
+        if (Objects.nonNull(scope)) {
+            missed = scope.resolve(this.name, ks, kt);
+            registry.counter(MetricsRegistry.ACQUIRE_SCOPE_HITS, this.metricsTags()).increment(ks.size() - (long) missed.size());
+            if (missed.isEmpty()) {
+                return;
+            }
+        }
+        this.fetchPartitions(kt, missed);
+        if (Objects.nonNull(scope)) {
+            scope.put(this.name, missed, kt, Objects.isNull(this.throwable));
+        }
+    }
+
+    /**
+     * 按分批设置请求数据
+     *
+     * @param kt 结果映射
+     * @param ks 需要请求的 Key 集合
+     */
+    private void fetchPartitions(Map<K, T> kt, Collection<K> ks) {
+        MetricsRegistry registry = this.assign.getMetricsRegistry();
         List<List<K>> partitions;
         // 分批请求
         if (Objects.nonNull(this.batchSize)) {
             partitions = Streams.partition(new ArrayList<>(ks), this.batchSize);
-            Assign.<List<K>, Void>parallelExecute(partitions, this.assign.functionRunVirtualExecutor(k -> {
-                this.fetchData(k);
-                return null;
-            }), this.assign.getExecutor(), this.timeout, null, "Acquire.fetch parallel execute by batchSize exception");
+            registry.counter(MetricsRegistry.ACQUIRE_BATCHES, this.metricsTags()).increment(partitions.size());
+            Assign.<List<K>, Void>parallelExecute(partitions, this.assign.functionRunVirtualExecutor(
+                    this.assign.functionTraced(Tracer.SPAN_ACQUIRE_PARTITION, k -> {
+                        this.fetchData(kt, k);
+                        return null;
+                    }, "acquire", this.name)), this.assign.getExecutor(), this.timeout, null, "Acquire.fetch parallel execute by batchSize exception");
         } else {
-            this.fetchData(ks);
-        }
-        this.fetchTiming.end();
-        if (log.isDebugEnabled()) {
-            log.debug("fetch result: {}", Jsons.str(this.ktMap));
+            registry.counter(MetricsRegistry.ACQUIRE_BATCHES, this.metricsTags()).increment();
+            this.fetchData(kt, ks);
         }
-        return this.ktMap;
     }
 
     /**
      * 从数据源获取数据
      *
+     * @param kt 结果映射，分批请求时由多个线程并发写入
      * @param ks Key 集合
      */
-    private void fetchData(Collection<K> ks) {
+    private void fetchData(Map<K, T> kt, Collection<K> ks) {
         try {
-            // 双重检查锁保证线程安全
-            if (Objects.isNull(this.ktMap)) {
-                synchronized (this) {
-                    if (Objects.isNull(this.ktMap)) {
-                        this.ktMap = new ConcurrentHashMap<>(ks.size());
-                    }
+            // 先尝试从缓存获取，只有缓存未命中的 key 才从数据源获取
+            Collection<K> missed = ks;
+            if (Objects.nonNull(this.cacheHandler)) {
+                Map<K, T> cached = this.getFromCache(ks);
+                if (Objects.nonNull(cached) && !cached.isEmpty()) {
+                    kt.putAll(cached);
+                    missed = ks.stream().filter(k -> !cached.containsKey(k)).toList();
                 }
+                MetricsRegistry registry = this.assign.getMetricsRegistry();
+                registry.counter(MetricsRegistry.ACQUIRE_CACHE_HITS, this.metricsTags()).increment(ks.size() - (long) missed.size());
+                registry.counter(MetricsRegistry.ACQUIRE_CACHE_MISSES, this.metricsTags()).increment(missed.size());
             }
-            // 先尝试从缓存获取
-            Map<K, T> kt = this.getFromCache(ks);
-            if (Objects.isNull(kt) || kt.isEmpty()) {
-                // 缓存未命中，从数据源获取
-                kt = this.get(ks);
+            if (missed.isEmpty()) {
+                return;
             }
-            this.ktMap.putAll(kt);
+            Map<K, T> fetched = this.get(missed);
+            kt.putAll(fetched);
+            this.putToCache(fetched);
         } catch (Exception e) {
             log.error("Assign.Acquire except, keys size={}", ks.size(), e);
             this.throwable = e;
@@ -381,19 +1014,63 @@ public class Acquire<E, K, T> {
      * 从缓存获取数据
      *
      * @param ks Key 集合
-     * @return Key 到关联数据的映射，缓存未命中返回 null
+     * @return 缓存命中的 Key 到关联数据的映射，缓存未命中返回 null
      */
     private @Nullable Map<K, T> getFromCache(Collection<K> ks) {
-        Map<K, T> kt = null;
-        String acquireCacheName = this.assign.getName() + Constants.UNDERSCORE + this.name;
         if (Objects.isNull(this.cacheHandler)) {
-            return kt;
+            return null;
         }
-        kt = this.cacheHandler.get(acquireCacheName, ks);
-        if (Objects.nonNull(kt)) {
-            this.cacheHandler.put(acquireCacheName, kt);
+        return this.cacheHandler.get(this.getCacheName(), ks);
+    }
+
+    /**
+     * 将从数据源获取的数据写入缓存
+     *
+     * @param kt Key 到关联数据的映射
+     */
+    private void putToCache(Map<K, T> kt) {
+        if (Objects.isNull(this.cacheHandler) || kt.isEmpty()) {
+            return;
         }
-        return kt;
+        this.cacheHandler.put(this.getCacheName(), kt);
+    }
+
+    private String getCacheName() {
+        if (Objects.nonNull(this.cacheName)) {
+            return this.cacheName;
+        }
+        return this.assign.getName() + Constants.UNDERSCORE + this.name;
+    }
+
+    /**
+     * 未设置缓存时使用指定的缓存处理器与缓存名称
+     * <p>
+     * 用于在多个结构相同的 Assign 之间共享获取结果，如流式处理的各个窗口。
+     * </p>
+     *
+     * @param cacheHandler 缓存处理器
+     * @param cacheName    缓存名称
+     */
+    void cacheIfAbsent(CacheHandler cacheHandler, String cacheName) {
+        if (Objects.nonNull(this.cacheHandler)) {
+            return;
+        }
+        this.cacheHandler = cacheHandler;
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * 指标标签，名称未变化时复用，避免每次记录指标都创建数组
+     *
+     * @return assign、acquire 标签
+     */
+    private String[] metricsTags() {
+        String[] tags = this.metricsTags;
+        if (Objects.isNull(tags) || tags[1] != this.assign.getName() || tags[3] != this.name) {
+            tags = new String[]{MetricsRegistry.TAG_ASSIGN, this.assign.getName(), MetricsRegistry.TAG_ACQUIRE, this.name};
+            this.metricsTags = tags;
+        }
+        return tags;
     }
 
     /**
@@ -415,13 +1092,13 @@ public class Acquire<E, K, T> {
             Map<K, T> result;
             if (Objects.nonNull(this.assign.getExecutor())) {
                 result = new ConcurrentHashMap<>(ks.size());
-                Assign.parallelExecute(ks, this.assign.functionRunVirtualExecutor(k -> {
+                Assign.parallelExecute(ks, this.assign.functionRunVirtualExecutor(TraceContext.wrap(k -> {
                     T value = this.fetcher.apply(k);
                     if (Objects.nonNull(value)) {
                         result.put(k, value);
                     }
                     return value;
-                }), this.assign.getExecutor(), this.timeout, null, "Acquire parallel execute fetcher exception");
+                })), this.assign.getExecutor(), this.timeout, null, "Acquire parallel execute fetcher exception");
             } else {
                 result = HashMap.newHashMap(ks.size());
                 ks.forEach(k -> {
@@ -442,12 +1119,59 @@ public class Acquire<E, K, T> {
      * @param e 主数据对象
      */
     void invoke(E e) {
-        this.invokeTiming = Timings.start();
+        if (this.pruned) {
+            return;
+        }
+        long start = this.invokeTiming.start();
+        for (Action<E, K, T> action : this.actions) {
+            action.invokeLazy(e);
+        }
+        // 延迟获取未完成时只设置 Supplier，普通赋值在获取后执行
+        if (this.lazy && !this.loaded) {
+            this.invokeTiming.end(start);
+            return;
+        }
         if (this.isSuccess() && Objects.nonNull(this.ktMap)) {
-            this.actions.forEach(k -> k.invoke(e, this.ktMap));
+            for (Action<E, K, T> action : this.actions) {
+                action.invoke(e, this.ktMap);
+            }
         }
         this.after(e);
-        this.invokeTiming.end();
+        this.invokeTiming.end(start);
+    }
+
+    /**
+     * 按列执行赋值，见 {@link Assign#columnar()}
+     *
+     * @param rows 主数据
+     */
+    void invokeColumnar(E[] rows) {
+        if (this.pruned) {
+            return;
+        }
+        if (this.lazy && !this.loaded) {
+            for (E e : rows) {
+                this.invoke(e);
+            }
+            return;
+        }
+        long start = this.invokeTiming.start();
+        Map<K, T> kt = this.ktMap;
+        for (Action<E, K, T> action : this.actions) {
+            if (this.isSuccess() && Objects.nonNull(kt)) {
+                action.invokeColumnar(rows, kt);
+            } else {
+                for (E e : rows) {
+                    action.invokeLazy(e);
+                }
+            }
+        }
+        if (Objects.nonNull(this.throwable) || Objects.nonNull(this.afterProcessor)) {
+            for (E e : rows) {
+                this.after(e);
+            }
+        }
+        this.invokeTiming.end(start);
     }
 
     /**
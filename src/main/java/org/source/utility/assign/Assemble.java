@@ -2,7 +2,14 @@ package org.source.utility.assign;
 
 import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.utils.AggregateTiming;
+import org.source.utility.utils.Lambdas;
+import org.source.utility.utils.Timings;
 
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 /**
@@ -15,7 +22,7 @@ import java.util.function.BiConsumer;
  * @param <T> 关联数据类型
  * @author zengfugen
  */
-@JsonIncludeProperties({"name"})
+@JsonIncludeProperties({"name", "field", "invokeTiming"})
 public class Assemble<E, T> {
     /**
      * 操作名称
@@ -31,14 +38,87 @@ public class Assemble<E, T> {
      */
     private final BiConsumer<E, T> getAndSet;
 
+    /**
+     * 可序列化的 setter 方法引用，用于解析赋值的目标字段
+     */
+    private final @Nullable Serializable setter;
+
+    /**
+     * 赋值的目标字段，未知时为 null
+     */
+    private @Nullable String field;
+
+    /**
+     * 目标字段是否已解析
+     */
+    private boolean fieldResolved;
+
+    /**
+     * invoke 方法累计时间统计
+     */
+    @Getter
+    private final AggregateTiming invokeTiming;
+
     /**
      * 构造函数
      *
      * @param getAndSet 赋值操作
      */
     public Assemble(BiConsumer<E, T> getAndSet) {
+        this(getAndSet, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param getAndSet 赋值操作
+     * @param setter    可序列化的 setter 方法引用（如 {@code OrderDTO::setUserName}），用于解析目标字段
+     */
+    public Assemble(BiConsumer<E, T> getAndSet, @Nullable Serializable setter) {
         this.name = "Assemble_" + this.hashCode();
         this.getAndSet = getAndSet;
+        this.setter = setter;
+        this.invokeTiming = Timings.aggregate();
+    }
+
+    /**
+     * 设置赋值的目标字段，用于按请求字段裁剪（{@link Assign#invoke(Set)}）
+     *
+     * @param field 字段名
+     * @return this，支持链式调用
+     */
+    public Assemble<E, T> field(String field) {
+        this.field = field;
+        this.fieldResolved = true;
+        return this;
+    }
+
+    /**
+     * 获取赋值的目标字段，首次调用时从 setter 方法引用中解析，lambda 表达式无法解析
+     *
+     * @return 字段名，未知时返回 null
+     */
+    public @Nullable String getField() {
+        if (!this.fieldResolved) {
+            this.field = resolveField(this.setter);
+            this.fieldResolved = true;
+        }
+        return this.field;
+    }
+
+    /**
+     * 是否需要执行：目标字段未知或在请求的字段中
+     *
+     * @param fields 请求的字段
+     * @return 需要执行返回 true
+     */
+    boolean isRequired(Set<String> fields) {
+        String f = this.getField();
+        return Objects.isNull(f) || fields.contains(f);
+    }
+
+    static @Nullable String resolveField(@Nullable Serializable setter) {
+        return Objects.isNull(setter) ? null : Lambdas.getFieldName(setter);
     }
 
     /**
@@ -52,6 +132,15 @@ public class Assemble<E, T> {
         return this;
     }
 
+    /**
+     * 赋值操作，用于合并编译（{@link Action#compiled()}）
+     *
+     * @return 赋值操作
+     */
+    BiConsumer<E, T> getAndSet() {
+        return this.getAndSet;
+    }
+
     /**
      * 执行赋值操作
      *
@@ -59,6 +148,11 @@ public class Assemble<E, T> {
      * @param t 关联数据对象
      */
     void invoke(E e, T t) {
-        this.getAndSet.accept(e, t);
+        long start = this.invokeTiming.start();
+        try {
+            this.getAndSet.accept(e, t);
+        } finally {
+            this.invokeTiming.end(start);
+        }
     }
 }
\ No newline at end of file
@@ -12,9 +12,16 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.jspecify.annotations.Nullable;
+import org.source.utility.assign.metrics.DefaultMetricsRegistry;
+import org.source.utility.assign.metrics.MetricsRegistry;
+import org.source.utility.assign.metrics.NoopMetricsRegistry;
+import org.source.utility.assign.metrics.VirtualThreadMetrics;
+import org.source.utility.assign.trace.NoopTracer;
+import org.source.utility.assign.trace.Span;
+import org.source.utility.assign.trace.TraceContext;
+import org.source.utility.assign.trace.Tracer;
 import org.source.utility.constant.Constants;
 import org.source.utility.enums.BaseExceptionEnum;
-import org.source.utility.utils.Jsons;
 import org.source.utility.utils.Streams;
 import org.source.utility.utils.Timing;
 import org.source.utility.utils.Timings;
@@ -23,11 +30,10 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
-import java.util.stream.Stream;
 
 @Slf4j
-@JsonIncludeProperties({"name", "depth", "interruptStrategy", "executor", "timeout", "invokeTiming", "acquires", "branches", "dependOnAssigns", "dependByAssign"})
-@JsonPropertyOrder({"name", "depth", "interruptStrategy", "executor", "timeout", "invokeTiming", "acquires", "branches", "dependOnAssigns", "dependByAssign"})
+@JsonIncludeProperties({"name", "depth", "interruptStrategy", "executor", "timeout", "invokeTiming", "assembleTiming", "acquires", "branches", "dependOnAssigns", "dependByAssign"})
+@JsonPropertyOrder({"name", "depth", "interruptStrategy", "executor", "timeout", "invokeTiming", "assembleTiming", "acquires", "branches", "dependOnAssigns", "dependByAssign"})
 public class Assign<E> {
     private static final int ROOT_DEPTH = 1;
     private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
@@ -44,8 +50,20 @@ public class Assign<E> {
     ));
     /**
      * 集合不可修改，只可以更新集合对象的值
+     * <p>
+     * 按条件创建的分支在上级执行时才确定数据，在此之前为空集合，通过 {@link #mainData()} 访问。
+     * 执行时可能在其他线程中确定（如延迟获取的 Acquire），因此与 {@link #route} 均为 volatile，先写数据再清空路由规则。
+     * </p>
      */
-    private final Collection<E> mainData;
+    private volatile Collection<E> mainData;
+    /**
+     * 按条件创建的分支的路由规则，数据确定后为 null
+     */
+    private volatile @Nullable Route<E> route;
+    /**
+     * 分支的路由规则，数据确定后仍保留，增量执行（{@link #invokeDelta(Collection)}）时用于路由变更的数据
+     */
+    private @Nullable Route<E> routeRule;
     @Getter
     private final int depth;
     @JsonManagedReference
@@ -63,6 +81,14 @@ public class Assign<E> {
      * 比如将 E 转换成 其他类型并做一些操作等
      */
     private final List<Consumer<Collection<E>>> subs;
+    /**
+     * 不依赖主体 Acquire 赋值结果的子赋值程序，与主体的数据获取并行执行
+     */
+    private final List<Consumer<Collection<E>>> independentSubs;
+    /**
+     * 是否为独立分支：不读取上级 Acquire 赋值的字段，可与上级的数据获取并行执行
+     */
+    private boolean independent;
 
     @Nullable
     @JsonBackReference
@@ -99,6 +125,11 @@ public class Assign<E> {
      */
     @Getter
     private @Nullable Timing invokeTiming;
+    /**
+     * 赋值阶段（遍历 mainData 执行所有 acquire 的赋值）时间统计
+     */
+    @Getter
+    private @Nullable Timing assembleTiming;
 
     /**
      * 依赖的Assigns
@@ -107,6 +138,46 @@ public class Assign<E> {
     private final List<Assign<E>> dependOnAssigns;
     @JsonBackReference
     private @Nullable Assign<E> dependByAssign;
+    /**
+     * 指标注册表，为空时继承上级 Assign 的设置
+     */
+    private @Nullable MetricsRegistry metricsRegistry;
+    /**
+     * 链路追踪，为空时继承上级 Assign 的设置
+     */
+    private @Nullable Tracer tracer;
+    /**
+     * 请求范围内的获取结果共享，为空时继承上级 Assign 的设置，均未设置时使用当前线程的 scope
+     */
+    private @Nullable FetchScope fetchScope;
+    /**
+     * 根 Assign 执行完毕后的 JSON 执行报告输出器
+     */
+    private InvokeReporter reporter;
+    /**
+     * 执行优先级，为空时继承上级 Assign 的设置
+     */
+    private @Nullable PriorityEnum priority;
+    /**
+     * 是否合并整个 Assign 树中同源 Acquire 的数据获取
+     */
+    private boolean mergeFetch;
+    /**
+     * 请求的字段，为空时执行所有赋值操作，分支继承上级 Assign 的设置
+     */
+    private @Nullable Set<String> requestedFields;
+    /**
+     * 有分支或被其他 Assign 依赖时是否仍按请求的字段裁剪，为空时继承上级 Assign 的设置
+     */
+    private @Nullable Boolean pruneShared;
+    /**
+     * 是否在赋值完成后释放获取结果，为空时继承上级 Assign 的设置
+     */
+    private @Nullable Boolean releaseFetched;
+    /**
+     * 是否按列赋值，为空时继承上级 Assign 的设置
+     */
+    private @Nullable Boolean columnar;
 
     public Assign(Collection<E> mainData, int depth, @Nullable Assign<E> superAssign) {
         this.mainData = Collections.unmodifiableCollection(mainData);
@@ -123,8 +194,10 @@ public class Assign<E> {
             this.superAssign.branches.add(this);
         }
         this.subs = new ArrayList<>();
+        this.independentSubs = new ArrayList<>();
         this.acquireCounter = new AtomicInteger(0);
         this.dependOnAssigns = new ArrayList<>();
+        this.reporter = InvokeReporter.off();
     }
 
     public Assign(Collection<E> mainData) {
@@ -132,7 +205,11 @@ public class Assign<E> {
     }
 
     public Assign(Assign<E> superAssign) {
-        this(superAssign.mainData, superAssign.depth + ROOT_DEPTH, superAssign);
+        this(Objects.isNull(superAssign.route) ? superAssign.mainData : List.of(), superAssign.depth + ROOT_DEPTH, superAssign);
+        // 上级数据尚未确定时，与上级一样在执行时确定
+        if (Objects.nonNull(superAssign.route)) {
+            this.route = Route.all();
+        }
     }
 
     public <K, T> Acquire<E, K, T> addAcquire(Function<Collection<K>, Map<K, T>> fetcher) {
@@ -158,27 +235,74 @@ public class Assign<E> {
     public <K, T> Acquire<E, K, T> addAcquire(Function<Collection<K>, Collection<T>> fetcher,
                                               Function<T, @Nullable K> keyGetter) {
         Function<Collection<K>, Map<K, T>> mapFetcher = ks -> toMap(fetcher.apply(ks), keyGetter);
-        Acquire<E, K, T> acquire = new Acquire<>(this, mapFetcher, null);
+        Acquire<E, K, T> acquire = new Acquire<>(this, mapFetcher, null).fetcherIdentity(List.of(fetcher, keyGetter));
         this.acquires.add(acquire);
         return acquire;
     }
 
     public <K, T> Acquire<E, K, List<T>> addAcquireOutGroup(Function<Collection<K>, Collection<T>> fetcher,
                                                             Function<T, @Nullable K> keyGetter) {
-        Function<Collection<K>, Map<K, List<T>>> mapFetcher = ks -> Streams.groupBy(fetcher.apply(ks), keyGetter);
-        Acquire<E, K, List<T>> acquire = new Acquire<>(this, mapFetcher, null);
+        Function<Collection<K>, Map<K, List<T>>> mapFetcher = ks -> OutGroups.group(fetcher.apply(ks), keyGetter, ks.size());
+        Acquire<E, K, List<T>> acquire = new Acquire<>(this, mapFetcher, null)
+                .fetcherIdentity(List.of(fetcher, keyGetter, "outGroup"));
+        this.acquires.add(acquire);
+        return acquire;
+    }
+
+    /**
+     * 一对多获取，每个 key 的数据按 order 排序
+     *
+     * @param fetcher   获取器
+     * @param keyGetter key
+     * @param order     排序
+     * @param <K>       key 类型
+     * @param <T>       数据类型
+     * @return Acquire
+     */
+    public <K, T> Acquire<E, K, List<T>> addAcquireOutGroup(Function<Collection<K>, Collection<T>> fetcher,
+                                                            Function<T, @Nullable K> keyGetter,
+                                                            Comparator<? super T> order) {
+        return this.addAcquireOutGroup(fetcher, keyGetter, order, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 一对多获取，每个 key 只保留按 order 排序的前 limit 条（top-N）
+     * <p>
+     * 分组时每个 key 只维护大小为 limit 的堆，不保存完整列表，适用于“每个部门最近 3 条记录”等场景。
+     * </p>
+     *
+     * @param fetcher   获取器
+     * @param keyGetter key
+     * @param order     排序
+     * @param limit     每个 key 最多保留的数量
+     * @param <K>       key 类型
+     * @param <T>       数据类型
+     * @return Acquire
+     */
+    public <K, T> Acquire<E, K, List<T>> addAcquireOutGroup(Function<Collection<K>, Collection<T>> fetcher,
+                                                            Function<T, @Nullable K> keyGetter,
+                                                            Comparator<? super T> order,
+                                                            int limit) {
+        if (limit <= 0) {
+            BaseExceptionEnum.SIZE_MIN.throwException("limit: {} must be positive", limit);
+        }
+        Function<Collection<K>, Map<K, List<T>>> mapFetcher =
+                ks -> OutGroups.groupTop(fetcher.apply(ks), keyGetter, ks.size(), order, limit);
+        Acquire<E, K, List<T>> acquire = new Acquire<>(this, mapFetcher, null)
+                .fetcherIdentity(List.of(fetcher, keyGetter, "outGroup", order, limit));
         this.acquires.add(acquire);
         return acquire;
     }
 
     public <K, T> Acquire<E, K, T> addAcquireInList(Function<List<K>, Collection<T>> fetcher,
                                                     Function<T, @Nullable K> keyGetter) {
-        return addAcquire(ks -> fetcher.apply(new ArrayList<>(ks)), keyGetter);
+        return addAcquire(ks -> fetcher.apply(new ArrayList<>(ks)), keyGetter)
+                .fetcherIdentity(List.of(fetcher, keyGetter, "inList"));
     }
 
     public <K, T> Acquire<E, K, T> addAcquireInMainData(Function<Collection<E>, Collection<T>> fetcher,
                                                         Function<T, @Nullable K> keyGetter) {
-        Function<Collection<K>, Map<K, T>> mapFetcher = ks -> toMap(fetcher.apply(this.mainData), keyGetter);
+        Function<Collection<K>, Map<K, T>> mapFetcher = ks -> toMap(fetcher.apply(this.mainData()), keyGetter);
         return addAcquire(mapFetcher);
     }
 
@@ -210,6 +334,15 @@ public class Assign<E> {
         return parallel(null, SEMAPHORE_PERMITS_DEFAULT);
     }
 
+    /**
+     * 使用默认的公平调度器并行，大数据量的 Assign 不会占满线程池而拖慢小请求
+     *
+     * @return Assign
+     */
+    public Assign<E> parallelFair() {
+        return parallel(FairScheduler.getDefault());
+    }
+
     public Assign<E> parallel(Executor executor) {
         return parallel(executor, null);
     }
@@ -231,6 +364,9 @@ public class Assign<E> {
         if (Objects.nonNull(semaphorePermitsMax)) {
             this.semaphore = new Semaphore(semaphorePermitsMax);
         }
+        if (this.timeout <= 0) {
+            this.timeout = Constants.TIMEOUT_SECONDS_30;
+        }
         if (Objects.nonNull(executor)) {
             return this;
         }
@@ -240,9 +376,21 @@ public class Assign<E> {
         } else {
             this.executor = DEFAULT_EXECUTOR;
         }
-        if (this.timeout <= 0) {
-            this.timeout = Constants.TIMEOUT_SECONDS_30;
-        }
+        return this;
+    }
+
+    /**
+     * 合并获取：执行时将整个 Assign 树（含分支）中同源的 Acquire 合并为一次获取
+     * <p>
+     * 同源指使用同一个 fetcher 实例与 keyGetter 实例（同一个变量，而非两处相同的方法引用），设置了 name 时还要求 name 相同。
+     * 合并后以第一个 Acquire 的设置（分批、缓存、超时）对所有 key 的并集获取一次数据，结果分发给各 Acquire 的 Action。
+     * 合并获取在上级赋值之前收集 key，依赖上级赋值结果的 key 在各 Acquire 执行时补充获取。因中断策略未执行的分支，其数据也已获取。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> mergeFetch() {
+        this.mergeFetch = true;
         return this;
     }
 
@@ -265,9 +413,289 @@ public class Assign<E> {
         return this;
     }
 
+    /**
+     * 开启指标统计，使用全局共享的 {@link DefaultMetricsRegistry}
+     *
+     * @return this
+     */
+    public Assign<E> metrics() {
+        return metrics(DefaultMetricsRegistry.getDefault());
+    }
+
+    /**
+     * 开启指标统计，分支未单独设置时继承该设置
+     *
+     * @param metricsRegistry 指标注册表
+     * @return this
+     */
+    public Assign<E> metrics(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        VirtualThreadMetrics.bindTo(metricsRegistry);
+        return this;
+    }
+
+    /**
+     * 获取指标注册表，未设置时依次取上级 Assign、被依赖 Assign 的设置
+     *
+     * @return MetricsRegistry
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        if (Objects.nonNull(this.metricsRegistry)) {
+            return this.metricsRegistry;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.getMetricsRegistry();
+        }
+        if (Objects.nonNull(this.dependByAssign)) {
+            return this.dependByAssign.getMetricsRegistry();
+        }
+        return NoopMetricsRegistry.INSTANCE;
+    }
+
+    /**
+     * 获取请求的字段，未设置时继承上级 Assign 的设置；被依赖的 Assign 不继承依赖方的设置
+     *
+     * @return 请求的字段，为空时执行所有赋值操作
+     */
+    public @Nullable Set<String> getRequestedFields() {
+        if (Objects.nonNull(this.requestedFields)) {
+            return this.requestedFields;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.getRequestedFields();
+        }
+        return null;
+    }
+
+    /**
+     * 按请求的字段执行时，有分支或被其他 Assign 依赖的 Assign 也裁剪 Acquire，分支未单独设置时继承该设置
+     * <p>
+     * 默认不裁剪这类 Assign：分支的条件、key 以及依赖方可能读取未请求的字段。
+     * 调用方确认分支与依赖方只读取请求的字段时才应开启。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> pruneShared() {
+        this.pruneShared = true;
+        return this;
+    }
+
+    /**
+     * 是否裁剪有分支或被依赖的 Assign，未设置时依次取上级 Assign 的设置
+     *
+     * @return 是否裁剪
+     */
+    public boolean isPruneShared() {
+        if (Objects.nonNull(this.pruneShared)) {
+            return this.pruneShared;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.isPruneShared();
+        }
+        return false;
+    }
+
+    /**
+     * 开启链路追踪，分支未单独设置时继承该设置
+     *
+     * @param tracer 链路追踪实现
+     * @return this
+     */
+    public Assign<E> tracer(Tracer tracer) {
+        this.tracer = tracer;
+        return this;
+    }
+
+    /**
+     * 获取链路追踪实现，未设置时依次取上级 Assign、被依赖 Assign 的设置
+     *
+     * @return Tracer
+     */
+    public Tracer getTracer() {
+        if (Objects.nonNull(this.tracer)) {
+            return this.tracer;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.getTracer();
+        }
+        if (Objects.nonNull(this.dependByAssign)) {
+            return this.dependByAssign.getTracer();
+        }
+        return NoopTracer.INSTANCE;
+    }
+
+    /**
+     * 指定请求范围的获取结果共享，用于未经 TTL 包装的自定义线程池等无法自动传递 {@link FetchScope#current()} 的场景
+     *
+     * @param fetchScope 请求范围
+     * @return this
+     */
+    public Assign<E> fetchScope(FetchScope fetchScope) {
+        this.fetchScope = fetchScope;
+        return this;
+    }
+
+    /**
+     * 获取请求范围，未设置时依次取上级 Assign、被依赖 Assign 的设置，均未设置时取当前线程的 scope
+     *
+     * @return FetchScope，不存在或已关闭时返回 null
+     */
+    public @Nullable FetchScope getFetchScope() {
+        FetchScope scope;
+        if (Objects.nonNull(this.fetchScope)) {
+            scope = this.fetchScope;
+        } else if (Objects.nonNull(this.superAssign)) {
+            scope = this.superAssign.getFetchScope();
+        } else if (Objects.nonNull(this.dependByAssign)) {
+            scope = this.dependByAssign.getFetchScope();
+        } else {
+            scope = FetchScope.current();
+        }
+        return Objects.nonNull(scope) && !scope.isClosed() ? scope : null;
+    }
+
+    /**
+     * 赋值完成后立即释放各 Acquire 的获取结果，分支未单独设置时继承该设置
+     * <p>
+     * 默认获取结果在 Assign 被回收前一直可达；调用方持有 Assign（如使用 {@link #toList()}）时会占用大量内存。
+     * 开启后每个 Assign 的赋值完成即释放，执行报告中的耗时与获取数量（fetchedSize）仍保留。
+     * 释放后 {@link #invokeDelta(Collection)} 会重新获取变更数据的 key；有延迟赋值的 Acquire 不释放。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> releaseFetched() {
+        this.releaseFetched = true;
+        return this;
+    }
+
+    /**
+     * 是否在赋值完成后释放获取结果，未设置时依次取上级 Assign、被依赖 Assign 的设置，默认不释放
+     *
+     * @return 释放返回 true
+     */
+    public boolean isReleaseFetched() {
+        if (Objects.nonNull(this.releaseFetched)) {
+            return this.releaseFetched;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.isReleaseFetched();
+        }
+        if (Objects.nonNull(this.dependByAssign)) {
+            return this.dependByAssign.isReleaseFetched();
+        }
+        return false;
+    }
+
+    /**
+     * 按列赋值，分支未单独设置时继承该设置
+     * <p>
+     * 默认逐行执行所有 Acquire 的赋值；按列赋值时逐个 Acquire、逐个 Action 处理：先一次遍历提取所有行的 key 并查找关联数据，
+     * 再逐个 Assemble 按列赋值。适用于数据量大、Action 多的导出场景，赋值顺序在同一个 Acquire 内与逐行执行一致。
+     * Acquire/Action/Assemble 的耗时按列记录。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> columnar() {
+        this.columnar = true;
+        return this;
+    }
+
+    /**
+     * 是否按列赋值，未设置时依次取上级 Assign、被依赖 Assign 的设置，默认逐行赋值
+     *
+     * @return 按列赋值返回 true
+     */
+    public boolean isColumnar() {
+        if (Objects.nonNull(this.columnar)) {
+            return this.columnar;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.isColumnar();
+        }
+        if (Objects.nonNull(this.dependByAssign)) {
+            return this.dependByAssign.isColumnar();
+        }
+        return false;
+    }
+
+    /**
+     * 设置执行优先级，分支、子任务与 Acquire 未单独设置时继承该设置
+     * <p>
+     * 使用 {@link FairScheduler}（{@link #parallelFair()}）时生效：高优先级的任务优先执行，低优先级的任务让出工作线程。
+     * </p>
+     *
+     * @param priority 优先级
+     * @return this
+     */
+    public Assign<E> priority(PriorityEnum priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * 获取执行优先级，未设置时依次取上级 Assign、被依赖 Assign 的设置，默认 {@link PriorityEnum#NORMAL}
+     *
+     * @return PriorityEnum
+     */
+    public PriorityEnum getPriority() {
+        if (Objects.nonNull(this.priority)) {
+            return this.priority;
+        }
+        if (Objects.nonNull(this.superAssign)) {
+            return this.superAssign.getPriority();
+        }
+        if (Objects.nonNull(this.dependByAssign)) {
+            return this.dependByAssign.getPriority();
+        }
+        return PriorityEnum.NORMAL;
+    }
+
+    /**
+     * 根 Assign 每次执行完毕后都以 INFO 级别输出 JSON 执行报告
+     * <p>
+     * 序列化整个 Assign 树的开销不小，默认不输出，生产环境建议使用抽样、慢执行或异步模式。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> report() {
+        return report(InvokeReporter.always());
+    }
+
+    /**
+     * 设置 JSON 执行报告的输出方式，只对根 Assign 生效
+     *
+     * @param reporter 报告输出器，如 {@code InvokeReporter.sampled(100).async()}
+     * @return this
+     */
+    public Assign<E> report(InvokeReporter reporter) {
+        this.reporter = reporter;
+        return this;
+    }
+
+    /**
+     * 添加条件分支
+     * <p>
+     * 分支数据在上级执行时确定：所有条件分支共用一次对 mainData 的遍历，每个元素路由到所有满足条件的分支；
+     * 没有任何赋值操作的分支不会生成数据集合。
+     * </p>
+     * <p>
+     * 条件在上级执行时（上级的赋值与数据获取之前）求值，定义阶段不会固定分支数据：
+     * 执行前调用分支的 {@link #forEach(Consumer)}、{@link #peek(Consumer)}、{@link #toList()} 等方法时，
+     * 只按当时的数据临时过滤；在分支上再调用 {@link #addBranch()} 创建的分支同样在执行时确定数据。
+     * </p>
+     *
+     * @param filter 条件
+     * @return 分支
+     */
     public Assign<E> addBranch(Predicate<E> filter) {
-        List<E> es = Streams.retain(this.mainData, filter).toList();
-        return new Assign<>(es, this.depth + 1, this);
+        Assign<E> branch = new Assign<>(List.of(), this.depth + 1, this);
+        branch.route = new Route<>(filter, null, null);
+        branch.routeRule = branch.route;
+        return branch;
     }
 
     public Assign<E> addBranch() {
@@ -279,6 +707,7 @@ public class Assign<E> {
         keyAssigners.forEach((k, v) -> keyOperates.put(k, l -> {
             Assign<E> assign = v.apply(l);
             assign.superAssign = this;
+            assign.routeRule = new Route<>(null, keyGetter, k);
             this.branches.add(assign);
         }));
         return addOperates(keyGetter, keyOperates);
@@ -295,33 +724,89 @@ public class Assign<E> {
     }
 
     public <K> Assign<E> addOperates(Function<E, K> keyGetter, Map<K, Consumer<Collection<E>>> keyOperates) {
-        Map<K, List<E>> keyMap = Streams.groupBy(
-                this.mainData,
-                e -> Objects.requireNonNull(keyGetter.apply(e), "keyGetter cannot return null")
-        );
-        Map<Consumer<Collection<E>>, List<E>> operatorDataMap = HashMap.newHashMap(keyMap.size());
-        keyOperates.forEach((k, consumer) -> {
-            List<E> es = keyMap.get(k);
-            if (CollectionUtils.isEmpty(es)) {
-                return;
+        Collection<E> es = this.currentData();
+        // 一次遍历，按 consumer 汇总（多个 key 可以对应同一个 consumer），没有 consumer 的 key 直接跳过
+        int expectedSize = es.size() / Math.max(1, keyOperates.size()) + 1;
+        Map<Consumer<Collection<E>>, List<E>> operatorDataMap = HashMap.newHashMap(keyOperates.size());
+        for (E e : es) {
+            Consumer<Collection<E>> consumer = keyOperates.get(Objects.requireNonNull(keyGetter.apply(e), "keyGetter cannot return null"));
+            if (Objects.nonNull(consumer)) {
+                operatorDataMap.computeIfAbsent(consumer, c -> new ArrayList<>(expectedSize)).add(e);
             }
-            operatorDataMap.compute(consumer, (a, l) -> {
-                if (CollectionUtils.isEmpty(l)) {
-                    l = new ArrayList<>();
-                }
-                l.addAll(es);
-                return l;
-            });
-        });
+        }
         operatorDataMap.forEach(Consumer::accept);
         return this;
     }
 
+    /**
+     * 按 key 多路分区，每个 key 对应一个分支
+     * <p>
+     * 与 {@link #addBranch(Predicate)} 相同，分支数据在上级执行时通过一次遍历确定，每个元素只调用一次 keyGetter；
+     * 没有任何赋值操作的分支不会生成数据集合。
+     * </p>
+     * <pre>
+     *   assign.addPartitions(OrderDTO::getType, Map.of(
+     *           TYPE_A, b -&gt; b.addAcquire(this::findA, ADTO::getId).addAction(OrderDTO::getRefId)...,
+     *           TYPE_B, b -&gt; b.addAcquire(this::findB, BDTO::getId).addAction(OrderDTO::getRefId)...));
+     * </pre>
+     *
+     * @param keyGetter    分区 key
+     * @param keyBranches  key 对应分支的定义
+     * @param <K>          key 类型
+     * @return this
+     */
+    public <K> Assign<E> addPartitions(Function<E, @Nullable K> keyGetter, Map<K, Consumer<Assign<E>>> keyBranches) {
+        keyBranches.forEach((k, definition) -> {
+            Assign<E> branch = new Assign<>(List.of(), this.depth + 1, this);
+            branch.route = new Route<>(null, keyGetter, k);
+            branch.routeRule = branch.route;
+            definition.accept(branch);
+        });
+        return this;
+    }
+
     public Assign<E> addSub(Consumer<Collection<E>> sub) {
         this.subs.add(sub);
         return this;
     }
 
+    /**
+     * 添加不依赖主体 Acquire 赋值结果的子任务，并行执行时与主体的数据获取同时开始
+     * <p>
+     * 与 {@link #independent()} 的约定相同：子任务不得读取主体 Acquire 赋值的字段，主体也不得读取子任务赋值的字段；
+     * 主体在子任务开始前收集全部 key，主体赋值完成后在执行分支前等待独立子任务。
+     * </p>
+     * <p>
+     * 主体因中断策略中断时，已开始的独立子任务仍会执行完毕。
+     * </p>
+     *
+     * @param sub 子任务
+     * @return this
+     */
+    public Assign<E> addIndependentSub(Consumer<Collection<E>> sub) {
+        this.independentSubs.add(sub);
+        return this;
+    }
+
+    /**
+     * 声明当前分支为独立分支：不读取上级 Acquire 赋值的字段，上级并行执行时与上级的数据获取同时开始
+     * <p>
+     * 独立分支与上级在不同线程中同时处理相同的数据对象，因此：分支不得读取上级 Acquire 赋值的字段，
+     * 上级也不得读取分支赋值的字段（包括作为 key）。上级在分支开始前收集全部 key，分支修改 key 所在的字段不会影响上级的数据获取；
+     * 上级的赋值与分支同时进行，完成后在执行其他分支前等待独立分支，等待使用单独的超时，
+     * 独立分支失败或超时不影响上级已完成的赋值。
+     * </p>
+     * <p>
+     * 上级因中断策略中断时，已开始的独立分支仍会执行完毕。
+     * </p>
+     *
+     * @return this
+     */
+    public Assign<E> independent() {
+        this.independent = true;
+        return this;
+    }
+
     /**
      * 依赖于指定的 Assign，必须等指定的 Assign 执行完毕才可执行
      *
@@ -340,7 +825,7 @@ public class Assign<E> {
      * @return Assign
      */
     public Assign<E> dependBy() {
-        Assign<E> eAssign = new Assign<>(this.mainData);
+        Assign<E> eAssign = new Assign<>(this.currentData());
         return eAssign.dependOn(this);
     }
 
@@ -384,84 +869,450 @@ public class Assign<E> {
         return assign;
     }
 
+    /**
+     * 遍历当前 Assign 及所有分支的 Acquire，先当前 Assign 后分支
+     *
+     * @param consumer 消费者
+     */
+    void forEachAcquire(Consumer<Acquire<E, ?, ?>> consumer) {
+        this.acquires.forEach(consumer);
+        this.branches.forEach(b -> b.forEachAcquire(consumer));
+    }
+
     public void forEach(Consumer<E> consumer) {
-        this.mainData.forEach(consumer);
+        this.currentData().forEach(consumer);
     }
 
     public Assign<E> peek(Consumer<E> consumer) {
-        this.mainData.forEach(consumer);
+        this.currentData().forEach(consumer);
         return this;
     }
 
     public List<E> toList() {
-        return new ArrayList<>(this.mainData);
+        return new ArrayList<>(this.currentData());
     }
 
     public <F> Assign<F> cast(Function<E, @Nullable F> mapping) {
-        return new Assign<>(Streams.map(this.mainData, mapping).toList());
+        return new Assign<>(Streams.map(this.currentData(), mapping).toList());
     }
 
     public <F> Assign<F> casts(Function<Collection<E>, Collection<F>> mapping) {
-        return new Assign<>(mapping.apply(this.mainData));
+        return new Assign<>(mapping.apply(this.currentData()));
+    }
+
+    /**
+     * 获取主数据，按条件创建的分支在数据未确定时单独从上级数据中过滤，并固定为分支数据
+     * <p>
+     * 只在执行阶段调用，定义阶段使用 {@link #currentData()}。
+     * </p>
+     *
+     * @return 主数据
+     */
+    Collection<E> mainData() {
+        Route<E> r = this.route;
+        if (Objects.nonNull(r) && Objects.nonNull(this.superAssign)) {
+            this.mainData = Collections.unmodifiableList(r.select(this.superAssign.mainData()));
+            this.route = null;
+        }
+        return this.mainData;
+    }
+
+    List<Assign<E>> dependOnAssigns() {
+        return this.dependOnAssigns;
+    }
+
+    /**
+     * 获取当前数据，按条件创建的分支在数据未确定时从上级数据中临时过滤，不固定分支数据
+     *
+     * @return 当前数据
+     */
+    private Collection<E> currentData() {
+        Route<E> r = this.route;
+        if (Objects.nonNull(r) && Objects.nonNull(this.superAssign)) {
+            return Collections.unmodifiableList(r.select(this.superAssign.currentData()));
+        }
+        return this.mainData;
+    }
+
+    /**
+     * 一次遍历确定所有按条件创建的分支的数据，没有赋值操作的分支不生成数据集合
+     */
+    private void routeBranches() {
+        List<Assign<E>> routed = null;
+        for (Assign<E> branch : this.branches) {
+            if (Objects.isNull(branch.route) || !InvokeStatusEnum.CREATED.equals(branch.status)) {
+                continue;
+            }
+            if (!branch.hasOperations()) {
+                continue;
+            }
+            if (Objects.isNull(routed)) {
+                routed = new ArrayList<>(this.branches.size());
+            }
+            routed.add(branch);
+        }
+        if (Objects.isNull(routed)) {
+            return;
+        }
+        Collection<E> es = this.mainData();
+        int n = routed.size();
+        int expectedSize = es.size() / n + 1;
+        List<List<E>> buckets = new ArrayList<>(n);
+        // 按 key 分区的分支，同一个 keyGetter 对每个元素只调用一次
+        Map<Function<E, ?>, Map<Object, List<Integer>>> keyed = new IdentityHashMap<>();
+        List<Integer> filtered = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            buckets.add(new ArrayList<>(expectedSize));
+            Route<E> r = Objects.requireNonNull(routed.get(i).route);
+            if (Objects.nonNull(r.keyGetter())) {
+                keyed.computeIfAbsent(r.keyGetter(), k -> new HashMap<>()).computeIfAbsent(r.key(), k -> new ArrayList<>(1)).add(i);
+            } else {
+                filtered.add(i);
+            }
+        }
+        for (E e : es) {
+            for (int i : filtered) {
+                if (Objects.requireNonNull(routed.get(i).route).test(e)) {
+                    buckets.get(i).add(e);
+                }
+            }
+            for (Map.Entry<Function<E, ?>, Map<Object, List<Integer>>> entry : keyed.entrySet()) {
+                Object k = entry.getKey().apply(e);
+                List<Integer> indexes = Objects.isNull(k) ? null : entry.getValue().get(k);
+                if (Objects.nonNull(indexes)) {
+                    for (int i : indexes) {
+                        buckets.get(i).add(e);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            Assign<E> branch = routed.get(i);
+            branch.mainData = Collections.unmodifiableList(buckets.get(i));
+            branch.route = null;
+        }
+    }
+
+    /**
+     * 确定整个 Assign 树的分支数据，并对同源的 Acquire 合并获取
+     */
+    private void fetchMerged() {
+        this.routeTree();
+        this.selectTree();
+        Map<Object, List<Acquire<E, ?, ?>>> groups = new LinkedHashMap<>();
+        this.forEachAcquire(a -> {
+            Object key = a.mergeKey();
+            if (Objects.nonNull(key) && !a.isLazy() && !a.isPruned() && !a.isFetched()) {
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(a);
+            }
+        });
+        List<List<Acquire<E, ?, ?>>> merged = groups.values().stream().filter(l -> l.size() > 1).toList();
+        Assign.<List<Acquire<E, ?, ?>>, Void>parallelExecute(merged, this.functionRunVirtualExecutor(TraceContext.wrap(l -> {
+            Acquire.fetchMerged(l);
+            return null;
+        })), this.executor, this.timeout, null, "Assign merge fetch exception");
+    }
+
+    /**
+     * 按请求的字段裁剪 Acquire，有分支或被依赖且未开启 {@link #pruneShared()} 时不裁剪
+     */
+    private void selectFields() {
+        Set<String> fields = this.getRequestedFields();
+        if (Objects.isNull(fields)) {
+            return;
+        }
+        if ((!this.branches.isEmpty() || Objects.nonNull(this.dependByAssign)) && !this.isPruneShared()) {
+            return;
+        }
+        for (Acquire<E, ?, ?> acquire : this.acquires) {
+            acquire.select(fields);
+        }
+    }
+
+    private void selectTree() {
+        this.selectFields();
+        for (Assign<E> branch : this.branches) {
+            branch.selectTree();
+        }
+    }
+
+    private void routeTree() {
+        this.routeBranches();
+        for (Assign<E> branch : this.branches) {
+            if (Objects.isNull(branch.route) && InvokeStatusEnum.CREATED.equals(branch.status)) {
+                branch.routeTree();
+            }
+        }
+    }
+
+    private boolean hasOperations() {
+        return !this.acquires.isEmpty() || !this.assignValues.isEmpty() || !this.branches.isEmpty()
+                || !this.subs.isEmpty() || !this.independentSubs.isEmpty() || !this.dependOnAssigns.isEmpty();
     }
 
     public Assign<E> invoke() {
-        this.invokeTiming = Timings.start();
-        if (CollectionUtils.isEmpty(this.mainData)) {
-            this.status = InvokeStatusEnum.ALL_SUCCESS;
-            this.invokeTiming.end();
+        FairScheduler.@Nullable Lane lane = this.openLane(this.getPriority(), this.name);
+        try {
+            if (!this.isTracing()) {
+                this.invokeInternal();
+                return this;
+            }
+            return this.traced(Tracer.SPAN_ASSIGN_INVOKE, span -> {
+                this.invokeInternal();
+                span.tag("size", String.valueOf(this.mainData.size())).tag("status", this.status.name());
+                return this;
+            }, "assign", this.name);
+        } finally {
+            if (Objects.nonNull(lane)) {
+                lane.close();
+            }
+        }
+    }
+
+    /**
+     * 按请求的字段执行：只执行为请求的字段赋值的 Acquire，其余 Acquire 不获取数据
+     * <p>
+     * 目标字段由 {@link Action#addAssemble(Function, org.source.utility.function.SBiConsumer)} 的 setter 方法引用解析，
+     * 或通过 {@link Assemble#field(String)} 指定；目标字段未知的赋值操作始终执行。
+     * 分支继承请求的字段，被依赖的 Assign 不继承；有分支或被依赖的 Assign 默认不裁剪，见 {@link #pruneShared()}。
+     * </p>
+     *
+     * @param requestedFields 请求的字段名，如 {@code userName}
+     * @return this
+     */
+    public Assign<E> invoke(Set<String> requestedFields) {
+        this.requestedFields = Set.copyOf(requestedFields);
+        return this.invoke();
+    }
+
+    /**
+     * 增量执行：已执行的 Assign 只为变更或新增的数据重新赋值
+     * <p>
+     * 只为变更数据中尚未获取过的 key 请求数据源，已获取的数据直接复用；变更数据按分支条件路由到已执行的分支。
+     * 未执行过时先完整执行一次。mainData 不可修改，新增的数据不会加入 mainData，由调用方的集合持有；
+     * 子任务（sub）和依赖的 Assign 处理的是整个集合，增量执行时不会重新执行。
+     * </p>
+     *
+     * @param changed 变更或新增的数据
+     * @return this
+     */
+    public Assign<E> invokeDelta(Collection<E> changed) {
+        if (!this.status.invoked()) {
+            this.invoke();
+        }
+        if (CollectionUtils.isEmpty(changed)) {
             return this;
         }
-        log.debug("Assign name:{}", this.name);
+        FairScheduler.@Nullable Lane lane = this.openLane(this.getPriority(), this.name);
+        try {
+            return this.traced(Tracer.SPAN_ASSIGN_INVOKE, span -> {
+                this.invokeDeltaInternal(changed);
+                span.tag("size", String.valueOf(changed.size())).tag("delta", "true");
+                return this;
+            }, "assign", this.name);
+        } finally {
+            if (Objects.nonNull(lane)) {
+                lane.close();
+            }
+        }
+    }
+
+    private void invokeDeltaInternal(Collection<E> changed) {
+        changed.forEach(e -> this.assignValues.forEach(a -> a.accept(e)));
+        Assign.<Acquire<E, ?, ?>, Void>parallelExecute(this.acquires, this.functionRunVirtualExecutor(TraceContext.wrap(a -> {
+            a.invokeDelta(changed);
+            if (this.isReleaseFetched()) {
+                a.release();
+            }
+            return null;
+        })), this.executor, this.timeout, null, "Assign parallel invoke delta exception");
+        this.status = this.acquireStatus();
+        if (this.interruptStrategy.interrupt(this.status)) {
+            return;
+        }
+        for (Assign<E> branch : this.branches) {
+            // 未执行（中断、没有赋值操作）的分支保持原样，首次执行时处理全部数据
+            if (!branch.status.invoked()) {
+                continue;
+            }
+            Route<E> r = branch.routeRule;
+            List<E> es = Objects.isNull(r) ? List.copyOf(changed) : changed.stream().filter(r::test).toList();
+            if (!es.isEmpty()) {
+                branch.invokeDeltaInternal(es);
+            }
+        }
+    }
+
+    /**
+     * 使用公平调度器时，为本次执行分配队列；已处于相同优先级的队列中（如分支、子任务）时沿用上级的队列
+     *
+     * @param p        优先级
+     * @param laneName 队列名称
+     * @return 队列，未使用公平调度器时返回 null
+     */
+    FairScheduler.@Nullable Lane openLane(PriorityEnum p, String laneName) {
+        if (this.executor instanceof FairScheduler scheduler && !scheduler.inLane(p)) {
+            return scheduler.openLane(laneName, p);
+        }
+        return null;
+    }
+
+    private void invokeInternal() {
         if (this.status.invoked()) {
             log.debug("Assign:{} invoked", this.name);
-            return this;
+            return;
+        }
+        this.invokeTiming = Timings.start();
+        // 没有赋值操作时直接结束，按条件创建的分支也不会生成数据集合
+        if (!this.hasOperations() || CollectionUtils.isEmpty(this.mainData())) {
+            this.status = InvokeStatusEnum.ALL_SUCCESS;
+            this.invokeTiming.end();
+            return;
         }
+        log.debug("Assign name:{}", this.name);
         // 依赖赋值先执行
-        if (CollectionUtils.isNotEmpty(this.dependOnAssigns)) {
-            this.dependOnAssigns.stream().filter(a -> !a.status.invoked()).forEach(Assign::invoke);
+        for (Assign<E> dependOnAssign : this.dependOnAssigns) {
+            if (!dependOnAssign.status.invoked()) {
+                dependOnAssign.invoke();
+            }
         }
-        this.invokeMain();
-        int sum = this.acquires.stream().map(k -> k.isSuccess() ? 0 : 1).reduce(0, Integer::sum);
-        if (sum == 0) {
-            this.status = InvokeStatusEnum.ALL_SUCCESS;
-        } else if (sum == this.acquires.size()) {
-            this.status = InvokeStatusEnum.ALL_FAIL;
+        this.selectFields();
+        if (this.mergeFetch) {
+            this.fetchMerged();
         } else {
-            this.status = InvokeStatusEnum.PARTIAL_FAIL;
+            this.routeBranches();
         }
+        CompletableFuture<?> independentFuture = this.invokeMain();
+        this.status = this.acquireStatus();
         log.debug("name:{} status:{}", this.name, this.status);
         this.invokeTiming.end();
         if (this.interruptStrategy.interrupt(this.status)) {
             log.debug("assign end, interruptStrategy:{}", this.interruptStrategy);
-            return this;
+            this.recordInvokeMetrics();
+            return;
+        }
+        if (Objects.nonNull(independentFuture)) {
+            // 独立任务使用单独的超时，从主体赋值完成后开始计算
+            Assign.parallelAwait(independentFuture, Objects.requireNonNull(this.executor), this.timeout,
+                    "Assign parallel execute independent branches exception");
         }
         this.invokeBranches();
         this.invokeSubs();
         this.invokeTiming.end();
+        this.recordInvokeMetrics();
         if (Objects.isNull(this.superAssign) && Objects.isNull(this.dependByAssign)) {
-            log.info("assign invoke report:{}", Jsons.str(this));
+            this.reporter.report(this, Objects.requireNonNull(this.invokeTiming.getDuration()).toNanos());
+        }
+    }
+
+    private InvokeStatusEnum acquireStatus() {
+        int sum = 0;
+        for (Acquire<E, ?, ?> acquire : this.acquires) {
+            if (!acquire.isSuccess()) {
+                sum++;
+            }
+        }
+        if (sum == 0) {
+            return InvokeStatusEnum.ALL_SUCCESS;
+        } else if (sum == this.acquires.size()) {
+            return InvokeStatusEnum.ALL_FAIL;
+        } else {
+            return InvokeStatusEnum.PARTIAL_FAIL;
         }
-        return this;
     }
 
-    private void invokeMain() {
+    private void recordInvokeMetrics() {
+        MetricsRegistry registry = this.getMetricsRegistry();
+        if (registry instanceof NoopMetricsRegistry || Objects.isNull(this.invokeTiming)
+                || Objects.isNull(this.invokeTiming.getDuration())) {
+            return;
+        }
+        registry.timer(MetricsRegistry.ASSIGN_INVOKE, MetricsRegistry.TAG_ASSIGN, this.name)
+                .record(this.invokeTiming.getDuration().toNanos());
+        registry.counter(MetricsRegistry.ASSIGN_STATUS, MetricsRegistry.TAG_ASSIGN, this.name,
+                MetricsRegistry.TAG_STATUS, this.status.name()).increment();
+    }
+
+    /**
+     * 数据获取与赋值
+     *
+     * @return 已提交的独立分支与子任务，没有时返回 null
+     */
+    private @Nullable CompletableFuture<?> invokeMain() {
         this.mainData.forEach(e -> this.assignValues.forEach(a -> a.accept(e)));
-        Assign.<Acquire<E, ?, ?>, Map<?, ?>>parallelExecute(this.acquires, this.functionRunVirtualExecutor(a -> a.fetch(this.mainData)),
-                this.executor, this.timeout, null, "Assign parallel fetch data exception");
-        this.mainData.forEach(e -> this.acquires.forEach(a -> a.invoke(e)));
+        Function<Acquire<E, ?, ?>, @Nullable Map<?, ?>> fetch = this.functionRunVirtualExecutor(TraceContext.wrap(a -> a.isLazy() || a.isPruned() ? null : a.fetch(this.mainData)));
+        List<Assign<E>> independentBranches = List.of();
+        if (Objects.nonNull(this.executor) && !this.branches.isEmpty()) {
+            for (Assign<E> branch : this.branches) {
+                if (branch.independent && InvokeStatusEnum.CREATED.equals(branch.status)) {
+                    if (independentBranches.isEmpty()) {
+                        independentBranches = new ArrayList<>(this.branches.size());
+                    }
+                    independentBranches.add(branch);
+                }
+            }
+        }
+        CompletableFuture<?> independentFuture = null;
+        if (!independentBranches.isEmpty() || (Objects.nonNull(this.executor) && !this.independentSubs.isEmpty())) {
+            // 独立分支与子任务不依赖 Acquire 的赋值结果，在数据获取之前单独提交，在执行分支前等待；
+            // 提交前收集 key，数据获取不再读取独立任务可能修改的主数据
+            for (Acquire<E, ?, ?> acquire : this.acquires) {
+                if (!acquire.isLazy() && !acquire.isPruned()) {
+                    acquire.snapshotKeys(this.mainData);
+                }
+            }
+            Function<Assign<E>, @Nullable Assign<E>> branch = this.functionRunVirtualExecutor(this.functionTraced(Tracer.SPAN_BRANCH, Assign::invoke));
+            Function<Consumer<Collection<E>>, @Nullable Void> sub = this.subFunction();
+            List<Runnable> tasks = new ArrayList<>(independentBranches.size() + this.independentSubs.size());
+            independentBranches.forEach(a -> tasks.add(() -> branch.apply(a)));
+            this.independentSubs.forEach(a -> tasks.add(() -> sub.apply(a)));
+            independentFuture = Assign.<Runnable, Void>parallelSubmit(tasks, r -> {
+                r.run();
+                return null;
+            }, Objects.requireNonNull(this.executor), null);
+        }
+        Assign.parallelExecute(this.acquires, fetch, this.executor, this.timeout, null, "Assign parallel fetch data exception");
+        this.assembleTiming = Timings.start();
+        if (this.isColumnar()) {
+            @SuppressWarnings("unchecked")
+            E[] rows = (E[]) this.mainData.toArray();
+            for (Acquire<E, ?, ?> acquire : this.acquires) {
+                acquire.invokeColumnar(rows);
+            }
+        } else {
+            for (E e : this.mainData) {
+                for (Acquire<E, ?, ?> acquire : this.acquires) {
+                    acquire.invoke(e);
+                }
+            }
+        }
+        this.assembleTiming.end();
+        if (this.isReleaseFetched()) {
+            this.acquires.forEach(Acquire::release);
+        }
+        return independentFuture;
     }
 
     private void invokeBranches() {
-        Assign.parallelExecute(this.branches, this.functionRunVirtualExecutor(Assign::invoke),
+        Assign.parallelExecute(this.branches, this.functionRunVirtualExecutor(this.functionTraced(Tracer.SPAN_BRANCH, Assign::invoke)),
                 this.executor, this.timeout, a -> InvokeStatusEnum.CREATED.equals(a.status), "Assign parallel execute branches exception");
     }
 
     private void invokeSubs() {
-        Assign.<Consumer<Collection<E>>, Void>parallelExecute(this.subs, this.functionRunVirtualExecutor(a -> {
+        List<Consumer<Collection<E>>> es = this.subs;
+        if (Objects.isNull(this.executor) && !this.independentSubs.isEmpty()) {
+            // 串行执行时独立子任务没有提前执行
+            es = new ArrayList<>(this.subs);
+            es.addAll(this.independentSubs);
+        }
+        Assign.parallelExecute(es, this.subFunction(), this.executor, this.timeout, null, "Assign parallel execute invokeSubs exception");
+    }
+
+    private Function<Consumer<Collection<E>>, @Nullable Void> subFunction() {
+        return this.functionRunVirtualExecutor(this.functionTraced(Tracer.SPAN_SUB, a -> {
             a.accept(this.mainData);
             return null;
-        }), this.executor, this.timeout, null, "Assign parallel execute invokeSubs exception");
+        }));
     }
 
     static <T, R> void parallelExecute(Collection<T> ts,
@@ -470,40 +1321,184 @@ public class Assign<E> {
                                        long timeout,
                                        @Nullable Predicate<T> filter,
                                        @Nullable String errorMsg) {
-        Stream<T> tStream = Streams.of(ts);
-        if (Objects.nonNull(filter)) {
-            tStream = tStream.filter(filter);
+        if (ts.isEmpty()) {
+            return;
         }
-        if (Objects.nonNull(executor)) {
-            try {
-                List<CompletableFuture<R>> completableFutureList = tStream
-                        .map(t -> CompletableFuture.supplyAsync(() -> function.apply(t), executor))
-                        .toList();
-                CompletableFuture.allOf(completableFutureList.toArray(new CompletableFuture[0]))
-                        .get(ObjectUtils.defaultIfNull(timeout, Constants.TIMEOUT_SECONDS_30), TimeUnit.SECONDS);
-            } catch (Exception e) {
-                if (StringUtils.isNotBlank(errorMsg)) {
-                    log.error(errorMsg, e);
+        // 串行执行：不创建 Stream、Future
+        if (Objects.isNull(executor)) {
+            for (T t : ts) {
+                if (Objects.isNull(filter) || filter.test(t)) {
+                    function.apply(t);
                 }
-                BaseExceptionEnum.ASSIGN_PARALLEL_EXECUTE_EXCEPTION.throwException(e, errorMsg);
             }
-        } else {
-            tStream.forEach(function::apply);
+            return;
+        }
+        CompletableFuture<?> all;
+        try {
+            all = parallelSubmit(ts, function, executor, filter);
+        } catch (Exception e) {
+            if (StringUtils.isNotBlank(errorMsg)) {
+                log.error(errorMsg, e);
+            }
+            BaseExceptionEnum.ASSIGN_PARALLEL_EXECUTE_EXCEPTION.throwException(e, errorMsg);
+            return;
+        }
+        if (Objects.nonNull(all)) {
+            parallelAwait(all, executor, timeout, errorMsg);
         }
     }
 
+    /**
+     * 提交任务，不等待
+     *
+     * @return 全部任务的 Future，没有需要执行的任务时返回 null
+     */
+    static <T, R> @Nullable CompletableFuture<?> parallelSubmit(Collection<T> ts,
+                                                                Function<T, R> function,
+                                                                Executor executor,
+                                                                @Nullable Predicate<T> filter) {
+        if (ts.size() == 1) {
+            // 单个任务：直接等待该任务，不创建数组与 allOf；仍提交到执行器，以保留超时控制
+            T t = ts.iterator().next();
+            if (Objects.nonNull(filter) && !filter.test(t)) {
+                return null;
+            }
+            return CompletableFuture.supplyAsync(() -> function.apply(t), executor);
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[ts.size()];
+        int n = 0;
+        for (T t : ts) {
+            if (Objects.isNull(filter) || filter.test(t)) {
+                futures[n++] = CompletableFuture.supplyAsync(() -> function.apply(t), executor);
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        return n == 1 ? futures[0] : CompletableFuture.allOf(n == futures.length ? futures : Arrays.copyOf(futures, n));
+    }
+
+    /**
+     * 等待已提交的任务
+     */
+    static void parallelAwait(CompletableFuture<?> all, Executor executor, long timeout, @Nullable String errorMsg) {
+        try {
+            long seconds = ObjectUtils.defaultIfNull(timeout, Constants.TIMEOUT_SECONDS_30);
+            if (executor instanceof CooperativeExecutor cooperativeExecutor) {
+                cooperativeExecutor.await(all, seconds, TimeUnit.SECONDS);
+            } else {
+                all.get(seconds, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            if (StringUtils.isNotBlank(errorMsg)) {
+                log.error(errorMsg, e);
+            }
+            BaseExceptionEnum.ASSIGN_PARALLEL_EXECUTE_EXCEPTION.throwException(e, errorMsg);
+        }
+    }
+
+    /**
+     * 是否开启了链路追踪，未开启时执行路径上不创建 Span 与标签
+     *
+     * @return 开启返回 true
+     */
+    boolean isTracing() {
+        return !(this.getTracer() instanceof NoopTracer);
+    }
+
+    /**
+     * 在 Span 中执行，未开启链路追踪时直接执行
+     *
+     * @param spanName Span 名称
+     * @param body     执行内容
+     * @param tags     key、value 交替的标签
+     * @param <R>      返回值类型
+     * @return 执行结果
+     */
+    <R> R traced(String spanName, Function<Span, R> body, String... tags) {
+        Tracer t = this.getTracer();
+        if (t instanceof NoopTracer) {
+            return body.apply(NoopTracer.INSTANCE.startSpan(spanName, null));
+        }
+        Span span = t.startSpan(spanName, TraceContext.current()).tags(tags);
+        TraceContext.Scope scope = TraceContext.activate(span);
+        try {
+            return body.apply(span);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            scope.close();
+            span.end();
+        }
+    }
+
+    /**
+     * 将函数包装为在 Span 中执行，父 Span 在包装时（提交任务的线程）捕获，
+     * 因此即使自定义线程池未经过 TTL 包装，也能正确传递链路上下文
+     *
+     * @param spanName Span 名称
+     * @param function 函数
+     * @param tags     key、value 交替的标签
+     * @param <T>      参数类型
+     * @param <R>      返回值类型
+     * @return 包装后的函数
+     */
+    <T, R> Function<T, @Nullable R> functionTraced(String spanName, Function<T, @Nullable R> function, String... tags) {
+        Tracer t = this.getTracer();
+        if (t instanceof NoopTracer) {
+            return function;
+        }
+        Span parent = TraceContext.current();
+        return e -> {
+            Span span = t.startSpan(spanName, parent).tags(tags).tag("assign", this.name);
+            TraceContext.Scope scope = TraceContext.activate(span);
+            try {
+                return function.apply(e);
+            } catch (RuntimeException ex) {
+                span.error(ex);
+                throw ex;
+            } finally {
+                scope.close();
+                span.end();
+            }
+        };
+    }
+
     <T, R> Function<T, @Nullable R> functionRunVirtualExecutor(Function<T, @Nullable R> function) {
         // 由于虚拟线程可大批量创建，这里使用信号量（Semaphore）控制最大线程并发数，避免数据库连接等资源过渡消耗
+        // Semaphore 基于 AQS，等待时虚拟线程会从载体线程卸载，不会固定（pin）载体线程
         if (Objects.nonNull(this.semaphore)) {
+            Semaphore s = this.semaphore;
+            Tracer tracer = this.getTracer();
+            Span parent = tracer instanceof NoopTracer ? null : TraceContext.current();
             return t -> {
+                long start = System.nanoTime();
+                Span waitSpan = tracer instanceof NoopTracer ? null
+                        : tracer.startSpan(Tracer.SPAN_SEMAPHORE_WAIT, parent).tag("assign", this.name);
                 try {
-                    this.semaphore.acquire();
-                    return function.apply(t);
+                    s.acquire();
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     throw BaseExceptionEnum.THREAD_INTERRUPTED.newException(e);
                 } finally {
-                    this.semaphore.release();
+                    if (Objects.nonNull(waitSpan)) {
+                        waitSpan.end();
+                    }
+                }
+                boolean virtual = Thread.currentThread().isVirtual();
+                if (virtual) {
+                    VirtualThreadMetrics.enter();
+                }
+                try {
+                    this.getMetricsRegistry().timer(MetricsRegistry.ASSIGN_SEMAPHORE_WAIT, MetricsRegistry.TAG_ASSIGN, this.name)
+                            .record(System.nanoTime() - start);
+                    return function.apply(t);
+                } finally {
+                    if (virtual) {
+                        VirtualThreadMetrics.exit();
+                    }
+                    s.release();
                 }
             };
         } else {
@@ -514,4 +1509,33 @@ public class Assign<E> {
     public static <E> Assign<E> build(Collection<E> mainData) {
         return new Assign<>(mainData);
     }
+
+    /**
+     * 分支的路由规则：条件（filter）或 key 分区（keyGetter、key）
+     */
+    private record Route<E>(@Nullable Predicate<E> filter, @Nullable Function<E, ?> keyGetter, @Nullable Object key) {
+        /**
+         * 不过滤，数据与上级相同
+         */
+        static <E> Route<E> all() {
+            return new Route<>(e -> true, null, null);
+        }
+
+        boolean test(E e) {
+            if (Objects.nonNull(this.filter)) {
+                return this.filter.test(e);
+            }
+            return Objects.nonNull(this.keyGetter) && Objects.equals(this.key, this.keyGetter.apply(e));
+        }
+
+        List<E> select(Collection<E> es) {
+            List<E> result = new ArrayList<>();
+            for (E e : es) {
+                if (this.test(e)) {
+                    result.add(e);
+                }
+            }
+            return result;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package org.source.utility.assign;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.enums.BaseExceptionEnum;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 基于 {@link Flow} 的流式批量赋值处理器
+ * <p>
+ * 将上游的数据按数量（batchSize）或时间（maxDelay）攒批，每批按同一个定义构建并执行 {@link Assign}，
+ * 再将赋值后的数据发布给下游。
+ * </p>
+ * <ul>
+ *   <li>向上游请求的数据量不超过一批，处理完一批后再请求下一批</li>
+ *   <li>发布基于 {@link SubmissionPublisher}，下游缓冲区已满时阻塞发布，从而向上游传递背压</li>
+ *   <li>定义中未设置缓存的 Acquire 在各批之间共享 {@link BoundedCacheHandler}</li>
+ * </ul>
+ * <pre>
+ *   AssignProcessor&lt;OrderDTO&gt; processor = AssignProcessor.&lt;OrderDTO&gt;of(a -&gt; a
+ *           .addAcquire(this::findUsers, UserDTO::getId)
+ *           .addAction(OrderDTO::getUserId)
+ *           .addAssemble(UserDTO::getName, OrderDTO::setUserName))
+ *       .batchSize(500).maxDelay(Duration.ofMillis(200));
+ *   upstream.subscribe(processor);
+ *   processor.subscribe(downstream);
+ * </pre>
+ *
+ * @param <E> 主数据类型
+ * @author zengfugen
+ */
+@Slf4j
+public class AssignProcessor<E> extends SubmissionPublisher<E> implements Flow.Processor<E, E> {
+    public static final int BATCH_SIZE_DEFAULT = 500;
+    public static final Duration MAX_DELAY_DEFAULT = Duration.ofMillis(200);
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder().namingPattern("assign-processor-timer-%d").daemon(true).build());
+
+    private final Executor executor;
+    private final Consumer<Assign<E>> definition;
+    private final ReentrantLock lock;
+    private @Nullable String name;
+    private int batchSize;
+    private Duration maxDelay;
+    private int cacheSize;
+
+    private @Nullable AssignTemplate<E> template;
+    private Flow.@Nullable Subscription subscription;
+    private @Nullable ScheduledFuture<?> timerFuture;
+    private List<E> buffer;
+    private long bufferStartNanos;
+
+    public AssignProcessor(Consumer<Assign<E>> definition, Executor executor, int maxBufferCapacity) {
+        super(executor, maxBufferCapacity);
+        this.executor = executor;
+        this.definition = definition;
+        this.lock = new ReentrantLock();
+        this.batchSize = BATCH_SIZE_DEFAULT;
+        this.maxDelay = MAX_DELAY_DEFAULT;
+        this.cacheSize = StreamAssign.CACHE_SIZE_DEFAULT;
+        this.buffer = new ArrayList<>();
+    }
+
+    public static <E> AssignProcessor<E> of(Consumer<Assign<E>> definition) {
+        return new AssignProcessor<>(definition, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    public AssignProcessor<E> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * 名称，未设置时按实例生成
+     *
+     * @return 名称
+     */
+    public String getName() {
+        if (Objects.isNull(this.name)) {
+            this.name = "AssignProcessor_" + this.hashCode();
+        }
+        return this.name;
+    }
+
+    /**
+     * 设置每批的最大数据量
+     *
+     * @param batchSize 每批的最大数据量
+     * @return this
+     */
+    public AssignProcessor<E> batchSize(int batchSize) {
+        if (batchSize <= 0) {
+            BaseExceptionEnum.BATCHSIZE_MUST_BE_POSITIVE.throwException("batchSize: {}", batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * 设置攒批的最长等待时间，批次中第一条数据等待超过该时间时，即使未满一批也会执行赋值
+     *
+     * @param maxDelay 最长等待时间
+     * @return this
+     */
+    public AssignProcessor<E> maxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    /**
+     * 设置跨批次缓存的容量（每个 Acquire），0 表示不跨批次复用
+     *
+     * @param cacheSize 缓存容量
+     * @return this
+     */
+    public AssignProcessor<E> cacheSize(int cacheSize) {
+        this.cacheSize = Math.max(0, cacheSize);
+        return this;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (Objects.nonNull(this.subscription)) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        this.template = new AssignTemplate<>(this.getName(), this.definition,
+                this.cacheSize > 0 ? new BoundedCacheHandler(this.cacheSize) : null);
+        long delayNanos = Math.max(1, this.maxDelay.toNanos());
+        this.timerFuture = TIMER.scheduleAtFixedRate(() -> this.executor.execute(this::flushIfDelayed),
+                delayNanos, delayNanos, TimeUnit.NANOSECONDS);
+        subscription.request(this.batchSize);
+    }
+
+    @Override
+    public void onNext(E item) {
+        this.lock.lock();
+        try {
+            if (this.buffer.isEmpty()) {
+                this.bufferStartNanos = System.nanoTime();
+            }
+            this.buffer.add(item);
+            if (this.buffer.size() >= this.batchSize) {
+                this.flush();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        this.cancelTimer();
+        this.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        this.cancelTimer();
+        this.lock.lock();
+        try {
+            this.flush();
+        } finally {
+            this.lock.unlock();
+        }
+        this.close();
+    }
+
+    private void flushIfDelayed() {
+        // 正在发布的批次可能因下游缓冲区已满而等待下游消费，下游又可能需要当前线程池的线程，此时不等待锁，由下一次定时检查处理
+        if (!this.lock.tryLock()) {
+            return;
+        }
+        try {
+            if (!this.buffer.isEmpty() && System.nanoTime() - this.bufferStartNanos >= this.maxDelay.toNanos()) {
+                this.flush();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 对当前批次执行赋值并发布，调用方需持有锁
+     */
+    private void flush() {
+        if (this.buffer.isEmpty() || this.isClosed()) {
+            return;
+        }
+        List<E> batch = this.buffer;
+        this.buffer = new ArrayList<>(this.batchSize);
+        try {
+            Objects.requireNonNull(this.template).invoke(batch);
+        } catch (Exception e) {
+            log.error("AssignProcessor:{} assign exception, batch size={}", this.getName(), batch.size(), e);
+            this.cancelTimer();
+            Objects.requireNonNull(this.subscription).cancel();
+            this.closeExceptionally(e);
+            return;
+        }
+        batch.forEach(this::submit);
+        Objects.requireNonNull(this.subscription).request(batch.size());
+    }
+
+    private void cancelTimer() {
+        if (Objects.nonNull(this.timerFuture)) {
+            this.timerFuture.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.source.utility.assign;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Assign 模板
+ * <p>
+ * 对每一批数据按同一个定义构建并执行 Assign，用于流式处理。
+ * 定义中未设置缓存的 Acquire 会使用模板共享的缓存，缓存名称按 Acquire 在定义中的顺序生成，
+ * 从而在各批数据之间复用已获取的结果。
+ * </p>
+ *
+ * @param <E> 主数据类型
+ * @author zengfugen
+ */
+class AssignTemplate<E> {
+    private final String name;
+    private final Consumer<Assign<E>> definition;
+    private final @Nullable CacheHandler cacheHandler;
+
+    AssignTemplate(String name, Consumer<Assign<E>> definition, @Nullable CacheHandler cacheHandler) {
+        this.name = name;
+        this.definition = definition;
+        this.cacheHandler = cacheHandler;
+    }
+
+    /**
+     * 对一批数据构建并执行 Assign
+     *
+     * @param window 一批数据
+     * @return 执行完毕的 Assign
+     */
+    Assign<E> invoke(Collection<E> window) {
+        Assign<E> assign = Assign.build(window).name(this.name);
+        this.definition.accept(assign);
+        if (Objects.nonNull(this.cacheHandler)) {
+            CacheHandler handler = this.cacheHandler;
+            int[] index = {0};
+            assign.forEachAcquire(a -> a.cacheIfAbsent(handler, this.name + "_Acquire_" + index[0]++));
+        }
+        return assign.invoke();
+    }
+}
@@ -0,0 +1,89 @@
+package org.source.utility.assign;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 容量有限的内存缓存处理器实现
+ * <p>
+ * 每个缓存名称对应一个按访问顺序淘汰（LRU）的缓存，超过容量时淘汰最久未访问的数据。
+ * 与 {@link DefaultCacheHandler} 的全局缓存不同，本缓存的生命周期与实例一致，
+ * 适用于流式处理等需要在多批数据之间复用获取结果、又不能无限占用内存的场景。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public class BoundedCacheHandler implements CacheHandler {
+    /**
+     * 每个缓存名称最多缓存的数据量
+     */
+    private final int maxEntries;
+
+    private final Map<String, LruCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param maxEntries 每个缓存名称最多缓存的数据量
+     */
+    public BoundedCacheHandler(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K, T> @Nullable Map<K, T> get(String cachedName, Collection<K> keys) {
+        LruCache cache = this.caches.get(cachedName);
+        if (Objects.isNull(cache)) {
+            return null;
+        }
+        Map<K, T> kt = HashMap.newHashMap(keys.size());
+        cache.lock.lock();
+        try {
+            for (K k : keys) {
+                Object v = cache.map.get(k);
+                if (Objects.nonNull(v)) {
+                    kt.put(k, (T) v);
+                }
+            }
+        } finally {
+            cache.lock.unlock();
+        }
+        return kt;
+    }
+
+    @Override
+    public <K, T> void put(String cachedName, Map<K, T> kt) {
+        LruCache cache = this.caches.computeIfAbsent(cachedName, k -> new LruCache(this.maxEntries));
+        cache.lock.lock();
+        try {
+            cache.map.putAll(kt);
+        } finally {
+            cache.lock.unlock();
+        }
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void clear() {
+        this.caches.clear();
+    }
+
+    private static final class LruCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Object, Object> map;
+
+        private LruCache(int maxEntries) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                    return this.size() > maxEntries;
+                }
+            };
+        }
+    }
+}
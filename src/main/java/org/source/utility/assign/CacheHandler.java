@@ -23,7 +23,7 @@ public interface CacheHandler {
      * @param <T>        数据类型
      * @param cachedName 缓存名称
      * @param keys       Key 集合
-     * @return Key 到数据的映射，缓存未命中返回 null
+     * @return 命中的 Key 到数据的映射，缓存未命中返回 null；部分命中时其余 Key 会从数据源获取并通过 {@link #put} 写入缓存
      */
     <K, T> @Nullable Map<K, T> get(String cachedName, Collection<K> keys);
 
@@ -0,0 +1,30 @@
+package org.source.utility.assign;
+
+import java.util.concurrent.*;
+
+/**
+ * 协作式执行器
+ * <p>
+ * 提交任务的线程在等待任务完成期间，帮助执行同一调用链中排队的任务，
+ * 使得嵌套的并行执行（分支、分批请求等）在工作线程数有限时也不会互相等待而死锁。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public interface CooperativeExecutor extends Executor {
+
+    /**
+     * 等待 future 完成，等待期间帮助执行当前调用链中排队的任务
+     *
+     * @param future  等待的任务
+     * @param timeout 超时时间
+     * @param unit    超时时间单位
+     * @param <T>     返回值类型
+     * @return 任务结果
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException   任务执行异常
+     * @throws TimeoutException     等待超时
+     */
+    <T> T await(CompletableFuture<T> future, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException;
+}
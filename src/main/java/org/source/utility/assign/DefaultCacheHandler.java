@@ -44,7 +44,7 @@ public class DefaultCacheHandler implements CacheHandler {
      * @param <T>        数据类型
      * @param cachedName 缓存名称
      * @param keys       Key 集合
-     * @return Key 到数据的映射，缓存未命中返回空 Map
+     * @return 命中的 Key 到数据的映射，缓存未命中返回空 Map
      */
     @SuppressWarnings("unchecked")
     @Override
@@ -54,7 +54,12 @@ public class DefaultCacheHandler implements CacheHandler {
             return Map.of();
         }
         Map<K, T> kt = new ConcurrentHashMap<>();
-        keys.forEach(k -> kt.put(k, (T) map.get(k)));
+        keys.forEach(k -> {
+            Object v = map.get(k);
+            if (Objects.nonNull(v)) {
+                kt.put(k, (T) v);
+            }
+        });
         return kt;
     }
 
@@ -0,0 +1,391 @@
+package org.source.utility.assign;
+
+import com.alibaba.ttl.TtlRunnable;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.assign.metrics.MetricsRegistry;
+import org.source.utility.assign.metrics.NoopMetricsRegistry;
+import org.source.utility.enums.BaseExceptionEnum;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 公平调度器
+ * <p>
+ * 默认线程池（{@code SynchronousQueue} + {@code CallerRunsPolicy}）饱和时，提交任务的线程会直接执行任务，
+ * 大数据量的 Assign（如导出）会占满线程池，拖慢小请求。本调度器为每次根 Assign 的执行分配一个队列（Lane），
+ * 工作线程在各队列之间轮询，每次从一个队列取一个任务执行，因此小请求的任务不会排在大请求的全部任务之后。
+ * </p>
+ * <ul>
+ *   <li>工作线程运行在独立的 {@link ForkJoinPool}（work-stealing）上，最大并发数为 maxWorkers</li>
+ *   <li>排队任务总数超过 maxQueued 时拒绝入队，由提交任务的线程直接执行，并记录拒绝次数</li>
+ *   <li>实现 {@link CooperativeExecutor}：等待任务完成的线程帮助执行本队列中的任务，嵌套的并行执行不会死锁</li>
+ *   <li>队列按 {@link PriorityEnum} 分级，优先执行高优先级队列中的任务；某一级超过 aging 时间未被执行时，
+ *   优先执行该级的一个任务，避免低优先级任务饥饿</li>
+ * </ul>
+ * <pre>
+ *   Assign.build(orders).parallelFair()...invoke();
+ * </pre>
+ *
+ * @author zengfugen
+ */
+@Slf4j
+@JsonIncludeProperties({"name", "maxWorkers", "maxQueued", "workers", "queued", "lanes", "rejected"})
+@JsonPropertyOrder({"name", "maxWorkers", "maxQueued", "workers", "queued", "lanes", "rejected"})
+public class FairScheduler implements CooperativeExecutor {
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    public static final int MAX_WORKERS_DEFAULT = PROCESSORS * 10;
+    public static final int MAX_QUEUED_DEFAULT = 10_000;
+    public static final Duration AGING_DEFAULT = Duration.ofMillis(100);
+    private static final long HELP_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final PriorityEnum[] PRIORITIES = PriorityEnum.values();
+    private static final FairScheduler DEFAULT = new FairScheduler("assign-fair", MAX_WORKERS_DEFAULT, MAX_QUEUED_DEFAULT);
+    /**
+     * 当前线程正在执行的队列
+     */
+    private static final ThreadLocal<@Nullable Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int maxWorkers;
+    @Getter
+    private final int maxQueued;
+    private final ForkJoinPool pool;
+    /**
+     * 按优先级（ordinal）分级的待执行队列
+     */
+    private final List<Queue<Lane>> readyLanes;
+    /**
+     * 各优先级最近一次被执行的时间
+     */
+    private final AtomicLongArray lastServedNanos;
+    private final Lane defaultLane;
+    private final AtomicInteger workers;
+    private final AtomicInteger queued;
+    private final AtomicInteger lanes;
+    private final LongAdder rejected;
+    private volatile MetricsRegistry metricsRegistry;
+    private volatile long agingNanos;
+
+    public FairScheduler(String name, int maxWorkers, int maxQueued) {
+        if (maxWorkers <= 0 || maxQueued <= 0) {
+            BaseExceptionEnum.SIZE_MIN.throwException("maxWorkers: {}, maxQueued: {} must be positive", maxWorkers, maxQueued);
+        }
+        this.name = name;
+        this.maxWorkers = maxWorkers;
+        this.maxQueued = maxQueued;
+        this.pool = new ForkJoinPool(maxWorkers, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        this.readyLanes = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            this.readyLanes.add(new ConcurrentLinkedQueue<>());
+        }
+        // 从创建时开始计算 aging，未被执行过的优先级不会立即越过较高优先级；nanoTime 可能为负数，不能以 0 作为初始值
+        this.lastServedNanos = new AtomicLongArray(PRIORITIES.length);
+        long now = System.nanoTime();
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            this.lastServedNanos.set(i, now);
+        }
+        this.defaultLane = new Lane(this, name + "-default", PriorityEnum.NORMAL);
+        this.workers = new AtomicInteger();
+        this.queued = new AtomicInteger();
+        this.lanes = new AtomicInteger();
+        this.rejected = new LongAdder();
+        this.metricsRegistry = NoopMetricsRegistry.INSTANCE;
+        this.agingNanos = AGING_DEFAULT.toNanos();
+    }
+
+    /**
+     * 全局共享的默认实例，最大并发数 {@code PROCESSORS * 10}，最大排队任务数 10000
+     *
+     * @return FairScheduler
+     */
+    public static FairScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 开启指标统计：排队任务数、队列数、工作线程数（瞬时值），排队耗时、拒绝次数
+     *
+     * @param metricsRegistry 指标注册表
+     * @return this
+     */
+    public FairScheduler metrics(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        metricsRegistry.gauge(MetricsRegistry.SCHEDULER_QUEUED, this::getQueued, MetricsRegistry.TAG_SCHEDULER, this.name);
+        metricsRegistry.gauge(MetricsRegistry.SCHEDULER_LANES, this::getLanes, MetricsRegistry.TAG_SCHEDULER, this.name);
+        metricsRegistry.gauge(MetricsRegistry.SCHEDULER_WORKERS, this::getWorkers, MetricsRegistry.TAG_SCHEDULER, this.name);
+        return this;
+    }
+
+    /**
+     * 设置防饥饿时间：某一优先级有待执行任务且超过该时间未被执行时，优先执行该优先级的一个任务
+     *
+     * @param aging 防饥饿时间
+     * @return this
+     */
+    public FairScheduler aging(Duration aging) {
+        this.agingNanos = aging.toNanos();
+        return this;
+    }
+
+    /**
+     * 为一次执行分配普通优先级的队列
+     *
+     * @param laneName 队列名称
+     * @return 队列，关闭时恢复当前线程之前的队列
+     */
+    public Lane openLane(String laneName) {
+        return this.openLane(laneName, PriorityEnum.NORMAL);
+    }
+
+    /**
+     * 为一次执行分配队列，之后当前线程及其提交的任务中再提交的任务都进入该队列
+     *
+     * @param laneName 队列名称
+     * @param priority 优先级
+     * @return 队列，关闭时恢复当前线程之前的队列
+     */
+    public Lane openLane(String laneName, PriorityEnum priority) {
+        Lane lane = new Lane(this, laneName, priority);
+        lane.previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(lane);
+        this.lanes.incrementAndGet();
+        return lane;
+    }
+
+    /**
+     * 当前线程是否已处于本调度器的队列中
+     *
+     * @return 是否处于队列中
+     */
+    public boolean inLane() {
+        Lane lane = CURRENT_LANE.get();
+        return Objects.nonNull(lane) && lane.scheduler == this;
+    }
+
+    /**
+     * 当前线程是否已处于本调度器指定优先级的队列中
+     *
+     * @param priority 优先级
+     * @return 是否处于队列中
+     */
+    public boolean inLane(PriorityEnum priority) {
+        Lane lane = CURRENT_LANE.get();
+        return Objects.nonNull(lane) && lane.scheduler == this && lane.priority == priority;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Runnable runnable = Objects.requireNonNull(TtlRunnable.get(command, false, true));
+        if (this.queued.incrementAndGet() > this.maxQueued) {
+            this.queued.decrementAndGet();
+            this.rejected.increment();
+            this.metricsRegistry.counter(MetricsRegistry.SCHEDULER_REJECTED, MetricsRegistry.TAG_SCHEDULER, this.name).increment();
+            log.debug("FairScheduler:{} queue is full, run in caller thread", this.name);
+            runnable.run();
+            return;
+        }
+        Lane lane = this.currentLane();
+        lane.tasks.add(new Task(runnable, System.nanoTime()));
+        if (lane.scheduled.compareAndSet(false, true)) {
+            this.readyLanes.get(lane.priority.ordinal()).add(lane);
+        }
+        this.signalWorker();
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Lane lane = this.currentLane();
+        while (!future.isDone()) {
+            Task task = lane.poll();
+            if (Objects.nonNull(task)) {
+                this.run(lane, task);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            try {
+                return future.get(Math.min(remaining, HELP_WAIT_NANOS), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // 继续帮助执行本队列中新提交的任务
+            }
+        }
+        return future.get();
+    }
+
+    private Lane currentLane() {
+        Lane lane = CURRENT_LANE.get();
+        return Objects.nonNull(lane) && lane.scheduler == this ? lane : this.defaultLane;
+    }
+
+    private void signalWorker() {
+        for (int w = this.workers.get(); w < this.maxWorkers; w = this.workers.get()) {
+            if (this.workers.compareAndSet(w, w + 1)) {
+                this.pool.execute(this::drain);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 工作线程：在各队列之间轮询，每次取一个任务执行，执行前将队列放回队尾
+     */
+    private void drain() {
+        for (; ; ) {
+            Lane lane = this.pollReadyLane();
+            if (Objects.isNull(lane)) {
+                this.workers.decrementAndGet();
+                // 退出前再次检查，避免与入队操作竞争导致任务无人执行
+                if (!this.hasReadyLanes() || !this.tryRetainWorker()) {
+                    return;
+                }
+                continue;
+            }
+            Queue<Lane> ready = this.readyLanes.get(lane.priority.ordinal());
+            Task task = lane.poll();
+            if (!lane.tasks.isEmpty()) {
+                ready.add(lane);
+            } else {
+                lane.scheduled.set(false);
+                if (!lane.tasks.isEmpty() && lane.scheduled.compareAndSet(false, true)) {
+                    ready.add(lane);
+                }
+            }
+            if (Objects.nonNull(task)) {
+                this.run(lane, task);
+            }
+        }
+    }
+
+    /**
+     * 取下一个待执行的队列：先取超过 aging 时间未被执行的较低优先级，再按优先级从高到低取
+     */
+    private @Nullable Lane pollReadyLane() {
+        long now = System.nanoTime();
+        for (int i = PRIORITIES.length - 1; i > 0; i--) {
+            if (now - this.lastServedNanos.get(i) >= this.agingNanos && !this.readyLanes.get(i).isEmpty()) {
+                Lane lane = this.readyLanes.get(i).poll();
+                if (Objects.nonNull(lane)) {
+                    this.lastServedNanos.set(i, now);
+                    return lane;
+                }
+            }
+        }
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            Lane lane = this.readyLanes.get(i).poll();
+            if (Objects.nonNull(lane)) {
+                this.lastServedNanos.set(i, now);
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasReadyLanes() {
+        for (Queue<Lane> ready : this.readyLanes) {
+            if (!ready.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryRetainWorker() {
+        for (int w = this.workers.get(); w < this.maxWorkers; w = this.workers.get()) {
+            if (this.workers.compareAndSet(w, w + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run(Lane lane, Task task) {
+        this.metricsRegistry.timer(MetricsRegistry.SCHEDULER_QUEUE_WAIT, MetricsRegistry.TAG_SCHEDULER, this.name,
+                MetricsRegistry.TAG_PRIORITY, lane.priority.name()).record(System.nanoTime() - task.enqueueNanos);
+        Lane previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(lane);
+        try {
+            task.runnable.run();
+        } catch (Throwable e) {
+            log.error("FairScheduler:{} lane:{} task exception", this.name, lane.name, e);
+        } finally {
+            CURRENT_LANE.set(previous);
+        }
+    }
+
+    public int getWorkers() {
+        return this.workers.get();
+    }
+
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    public int getLanes() {
+        return this.lanes.get();
+    }
+
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    private record Task(Runnable runnable, long enqueueNanos) {
+    }
+
+    /**
+     * 一次执行的任务队列
+     */
+    public static final class Lane implements AutoCloseable {
+        private final FairScheduler scheduler;
+        @Getter
+        private final String name;
+        @Getter
+        private final PriorityEnum priority;
+        private final Queue<Task> tasks;
+        private final AtomicBoolean scheduled;
+        private @Nullable Lane previous;
+
+        private Lane(FairScheduler scheduler, String name, PriorityEnum priority) {
+            this.scheduler = scheduler;
+            this.name = name;
+            this.priority = priority;
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.scheduled = new AtomicBoolean(false);
+        }
+
+        private @Nullable Task poll() {
+            Task task = this.tasks.poll();
+            if (Objects.nonNull(task)) {
+                this.scheduler.queued.decrementAndGet();
+            }
+            return task;
+        }
+
+        @Override
+        public void close() {
+            CURRENT_LANE.set(this.previous);
+            this.scheduler.lanes.decrementAndGet();
+        }
+    }
+}
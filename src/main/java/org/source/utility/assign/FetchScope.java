@@ -0,0 +1,154 @@
+package org.source.utility.assign;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求范围内的获取结果共享
+ * <p>
+ * 一次请求中构建多个相互独立的 Assign（如表头、明细、附件）时，它们往往获取相同的用户、部门。
+ * 在 scope 内执行的 Assign，设置了名称（{@link Acquire#name(String)}）的 Acquire 会按名称复用 scope 中已获取的数据，
+ * 只为尚未请求过的 key 调用数据源；数据源中不存在的 key 也只请求一次。
+ * </p>
+ * <p>
+ * 当前 scope 保存在 {@link TransmittableThreadLocal} 中，在 Assign 默认的 TTL 线程池中自动传递；
+ * 自定义线程池未经 TTL 包装时，可通过 {@link Assign#fetchScope(FetchScope)} 显式指定。
+ * 获取结果在 scope 内的多个 Assign 之间共享同一对象，赋值时不应修改获取结果。
+ * </p>
+ * <pre>{@code
+ * try (FetchScope ignored = FetchScope.open()) {
+ *     Assign.build(headers).addAcquire(this::findUsers, UserDTO::getId).name("user")...invoke();
+ *     Assign.build(lines).addAcquire(this::findUsers, UserDTO::getId).name("user")...invoke();
+ * }
+ * }</pre>
+ *
+ * @author zengfugen
+ */
+public final class FetchScope implements AutoCloseable {
+    private static final TransmittableThreadLocal<FetchScope> CURRENT = new TransmittableThreadLocal<>();
+
+    private final Map<String, Fetched> fetchedMap = new ConcurrentHashMap<>();
+    private final @Nullable FetchScope previous;
+    private volatile boolean closed;
+
+    private FetchScope(@Nullable FetchScope previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * 打开新的 scope 并设置为当前线程的 scope，关闭时恢复原来的 scope
+     *
+     * @return FetchScope
+     */
+    public static FetchScope open() {
+        FetchScope scope = new FetchScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 当前线程的 scope
+     *
+     * @return FetchScope，不存在时返回 null
+     */
+    public static @Nullable FetchScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 已保存获取结果的 Acquire 名称数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return this.fetchedMap.size();
+    }
+
+    /**
+     * scope 是否已关闭，已关闭的 scope 不再保存与复用获取结果
+     *
+     * @return 已关闭返回 true
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.fetchedMap.clear();
+        if (CURRENT.get() == this) {
+            if (Objects.isNull(this.previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(this.previous);
+            }
+        }
+    }
+
+    /**
+     * 将 scope 中已获取的数据写入 kt，返回仍需请求的 key
+     *
+     * @param name Acquire 名称
+     * @param ks   Key 集合
+     * @param kt   结果映射
+     * @param <K>  Key 类型
+     * @param <T>  数据类型
+     * @return 尚未请求过的 key
+     */
+    @SuppressWarnings("unchecked")
+    <K, T> Collection<K> resolve(String name, Collection<K> ks, Map<K, T> kt) {
+        Fetched fetched = this.closed ? null : this.fetchedMap.get(name);
+        if (Objects.isNull(fetched)) {
+            return ks;
+        }
+        Collection<K> missed = new ArrayList<>(ks.size());
+        for (K k : ks) {
+            Object v = fetched.values.get(k);
+            if (Objects.nonNull(v)) {
+                kt.put(k, (T) v);
+            } else if (!fetched.requested.contains(k)) {
+                missed.add(k);
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * 保存从数据源获取的数据
+     *
+     * @param name      Acquire 名称
+     * @param requested 请求的 key
+     * @param kt        结果映射
+     * @param complete  是否全部获取成功，失败时不记录数据源中不存在的 key，下次重新请求
+     * @param <K>       Key 类型
+     * @param <T>       数据类型
+     */
+    <K, T> void put(String name, Collection<K> requested, Map<K, T> kt, boolean complete) {
+        if (this.closed || requested.isEmpty()) {
+            return;
+        }
+        Fetched fetched = this.fetchedMap.computeIfAbsent(name, n -> new Fetched());
+        for (K k : requested) {
+            T v = kt.get(k);
+            if (Objects.nonNull(v)) {
+                fetched.values.put(k, v);
+                fetched.requested.add(k);
+            } else if (complete) {
+                fetched.requested.add(k);
+            }
+        }
+    }
+
+    private static final class Fetched {
+        private final Map<Object, Object> values = new ConcurrentHashMap<>();
+        private final Set<Object> requested = ConcurrentHashMap.newKeySet();
+    }
+}
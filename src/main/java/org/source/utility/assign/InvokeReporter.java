@@ -0,0 +1,238 @@
+package org.source.utility.assign;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.utils.AggregateTiming;
+import org.source.utility.utils.Jsons;
+import org.source.utility.utils.Timing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 执行报告输出器
+ * <p>
+ * 根 Assign 执行完毕后，按 {@link ReportModeEnum} 决定是否以 INFO 级别输出 JSON 执行报告。
+ * 序列化整个 Assign 树的开销不小，可通过 {@link #async()} 交由后台线程输出：请求线程只复制名称、耗时、数量等报告数据，
+ * 后台线程完成全部 JSON 序列化并输出；队列中不持有 Assign 及其获取结果，之后的 invokeDelta 也不会改变已生成的报告。
+ * 异步报告中的 executor 为执行器的类名。
+ * 后台队列有界，队列已满时丢弃报告，不阻塞请求线程。
+ * </p>
+ * <pre>
+ *   Assign.build(orders).report(InvokeReporter.slow(Duration.ofMillis(500)).async())
+ * </pre>
+ *
+ * @author zengfugen
+ */
+@Slf4j
+@Getter
+public final class InvokeReporter {
+    private static final InvokeReporter OFF = new InvokeReporter(ReportModeEnum.OFF, 1, 0, false);
+    private static final InvokeReporter ALWAYS = new InvokeReporter(ReportModeEnum.ALWAYS, 1, 0, false);
+
+    private final ReportModeEnum mode;
+    private final int sampleRate;
+    private final long slowThresholdNanos;
+    private final boolean async;
+
+    private InvokeReporter(ReportModeEnum mode, int sampleRate, long slowThresholdNanos, boolean async) {
+        this.mode = mode;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.async = async;
+    }
+
+    /**
+     * 不输出报告
+     */
+    public static InvokeReporter off() {
+        return OFF;
+    }
+
+    /**
+     * 每次执行都输出报告
+     */
+    public static InvokeReporter always() {
+        return ALWAYS;
+    }
+
+    /**
+     * 抽样输出报告
+     *
+     * @param sampleRate 平均每 sampleRate 次执行输出一次
+     * @return InvokeReporter
+     */
+    public static InvokeReporter sampled(int sampleRate) {
+        if (sampleRate <= 0) {
+            log.warn("sampleRate must be positive, got: {}, use 1", sampleRate);
+            sampleRate = 1;
+        }
+        return new InvokeReporter(ReportModeEnum.SAMPLED, sampleRate, 0, false);
+    }
+
+    /**
+     * 执行耗时达到阈值时输出报告
+     *
+     * @param threshold 慢执行阈值
+     * @return InvokeReporter
+     */
+    public static InvokeReporter slow(Duration threshold) {
+        return new InvokeReporter(ReportModeEnum.SLOW, 1, threshold.toNanos(), false);
+    }
+
+    /**
+     * 由后台线程序列化与输出报告
+     *
+     * @return 新的 InvokeReporter
+     */
+    public InvokeReporter async() {
+        return new InvokeReporter(this.mode, this.sampleRate, this.slowThresholdNanos, true);
+    }
+
+    /**
+     * 异步输出时因队列已满而丢弃的报告数量
+     *
+     * @return 丢弃数量
+     */
+    public static long getDroppedReports() {
+        return AsyncWriter.DROPPED.sum();
+    }
+
+    /**
+     * 输出报告
+     *
+     * @param assign        根 Assign
+     * @param durationNanos 执行耗时（纳秒）
+     */
+    void report(Assign<?> assign, long durationNanos) {
+        if (!this.mode.shouldReport(this.sampleRate, this.slowThresholdNanos, durationNanos)) {
+            return;
+        }
+        if (this.async) {
+            AsyncWriter.submit(assign);
+        } else {
+            write(assign);
+        }
+    }
+
+    private static void write(Object report) {
+        log.info("assign invoke report:{}", Jsons.str(report));
+    }
+
+    /**
+     * 后台输出线程，首次使用时启动
+     */
+    private static final class AsyncWriter {
+        private static final int QUEUE_CAPACITY = 1024;
+        private static final BlockingQueue<AssignReport> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private static final LongAdder DROPPED = new LongAdder();
+
+        static {
+            new BasicThreadFactory.Builder().namingPattern("assign-report-%d").daemon(true).build()
+                    .newThread(AsyncWriter::run).start();
+        }
+
+        private AsyncWriter() {
+        }
+
+        static void submit(Assign<?> assign) {
+            // 队列已满时不生成快照
+            if (QUEUE.remainingCapacity() == 0 || !QUEUE.offer(AssignReport.of(assign))) {
+                DROPPED.increment();
+                log.debug("assign report queue is full, report of {} dropped", assign.getName());
+            }
+        }
+
+        private static void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    write(QUEUE.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("assign invoke report exception", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Assign 报告数据的快照，字段与同步报告相同
+     */
+    @JsonPropertyOrder({"name", "depth", "interruptStrategy", "executor", "timeout", "invokeTiming", "assembleTiming",
+            "acquires", "branches", "dependOnAssigns"})
+    record AssignReport(String name,
+                        int depth,
+                        InterruptStrategyEnum interruptStrategy,
+                        @Nullable String executor,
+                        long timeout,
+                        @Nullable Timing invokeTiming,
+                        @Nullable Timing assembleTiming,
+                        List<AcquireReport> acquires,
+                        List<AssignReport> branches,
+                        List<AssignReport> dependOnAssigns) {
+        static AssignReport of(Assign<?> assign) {
+            Executor executor = assign.getExecutor();
+            return new AssignReport(assign.getName(), assign.getDepth(), assign.getInterruptStrategy(),
+                    Objects.isNull(executor) ? null : executor.getClass().getName(),
+                    assign.getTimeout(), copy(assign.getInvokeTiming()), copy(assign.getAssembleTiming()),
+                    map(assign.getAcquires(), AcquireReport::of), map(assign.getBranches(), AssignReport::of),
+                    map(assign.dependOnAssigns(), AssignReport::of));
+        }
+    }
+
+    @JsonPropertyOrder({"name", "executedName", "success", "batchSize", "timeout", "fetchedSize", "fetchTiming",
+            "invokeTiming", "actions"})
+    record AcquireReport(String name,
+                         @Nullable String executedName,
+                         boolean success,
+                         @Nullable Integer batchSize,
+                         long timeout,
+                         int fetchedSize,
+                         @Nullable Timing fetchTiming,
+                         AggregateTiming invokeTiming,
+                         List<ActionReport> actions) {
+        static AcquireReport of(Acquire<?, ?, ?> acquire) {
+            return new AcquireReport(acquire.getName(), acquire.getExecutedName(), acquire.isSuccess(),
+                    acquire.getBatchSize(), acquire.getTimeout(), acquire.getFetchedSize(), copy(acquire.getFetchTiming()),
+                    acquire.getInvokeTiming().copy(), map(acquire.getActions(), ActionReport::of));
+        }
+    }
+
+    @JsonPropertyOrder({"name", "invokeTiming", "assembles"})
+    record ActionReport(String name, AggregateTiming invokeTiming, List<AssembleReport> assembles) {
+        static ActionReport of(Action<?, ?, ?> action) {
+            return new ActionReport(action.getName(), action.getInvokeTiming().copy(),
+                    map(action.getAssembles(), AssembleReport::of));
+        }
+    }
+
+    @JsonPropertyOrder({"name", "field", "invokeTiming"})
+    record AssembleReport(String name, @Nullable String field, AggregateTiming invokeTiming) {
+        static AssembleReport of(Assemble<?, ?> assemble) {
+            return new AssembleReport(assemble.getName(), assemble.getField(), assemble.getInvokeTiming().copy());
+        }
+    }
+
+    private static @Nullable Timing copy(@Nullable Timing timing) {
+        return Objects.isNull(timing) ? null : timing.copy();
+    }
+
+    private static <T, R> List<R> map(List<T> ts, Function<T, R> mapper) {
+        List<R> result = new ArrayList<>(ts.size());
+        for (T t : ts) {
+            result.add(mapper.apply(t));
+        }
+        return result;
+    }
+}
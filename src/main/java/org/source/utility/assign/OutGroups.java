@@ -0,0 +1,132 @@
+package org.source.utility.assign;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 一对多获取结果的分组
+ * <p>
+ * 单次遍历获取结果，按请求的 key 数量预设容量，不经过 Stream 与并行流；
+ * 指定排序与数量上限时，每个 key 只保留一个大小为 limit 的堆，不保存完整列表。
+ * key 为 null 的数据被忽略。
+ * </p>
+ *
+ * @author zengfugen
+ */
+final class OutGroups {
+
+    private OutGroups() {
+    }
+
+    /**
+     * 按 key 分组，保持获取结果中的顺序
+     *
+     * @param ts           获取结果
+     * @param keyGetter    key
+     * @param expectedKeys 请求的 key 数量，用于预设容量
+     * @param <K>          key 类型
+     * @param <T>          数据类型
+     * @return 分组结果
+     */
+    static <K, T> Map<K, List<T>> group(@Nullable Collection<T> ts,
+                                        Function<T, @Nullable K> keyGetter,
+                                        int expectedKeys) {
+        if (Objects.isNull(ts) || ts.isEmpty()) {
+            return Map.of();
+        }
+        Map<K, List<T>> result = HashMap.newHashMap(Math.min(expectedKeys, ts.size()));
+        for (T t : ts) {
+            K k = keyGetter.apply(t);
+            if (Objects.nonNull(k)) {
+                result.computeIfAbsent(k, key -> new ArrayList<>(2)).add(t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按 key 分组，每组按 order 排序并只保留前 limit 条
+     * <p>
+     * 排序相同的数据保留先出现的。
+     * </p>
+     *
+     * @param ts           获取结果
+     * @param keyGetter    key
+     * @param expectedKeys 请求的 key 数量，用于预设容量
+     * @param order        排序
+     * @param limit        每组最多保留的数量，为 {@link Integer#MAX_VALUE} 时不限制数量，只排序
+     * @param <K>          key 类型
+     * @param <T>          数据类型
+     * @return 分组结果
+     */
+    static <K, T> Map<K, List<T>> groupTop(@Nullable Collection<T> ts,
+                                           Function<T, @Nullable K> keyGetter,
+                                           int expectedKeys,
+                                           Comparator<? super T> order,
+                                           int limit) {
+        if (limit == Integer.MAX_VALUE) {
+            Map<K, List<T>> result = group(ts, keyGetter, expectedKeys);
+            result.values().forEach(list -> list.sort(order));
+            return result;
+        }
+        if (Objects.isNull(ts) || ts.isEmpty()) {
+            return Map.of();
+        }
+        Map<K, TopN<T>> heaps = HashMap.newHashMap(Math.min(expectedKeys, ts.size()));
+        for (T t : ts) {
+            K k = keyGetter.apply(t);
+            if (Objects.nonNull(k)) {
+                heaps.computeIfAbsent(k, key -> new TopN<>(order, limit)).offer(t);
+            }
+        }
+        Map<K, List<T>> result = HashMap.newHashMap(heaps.size());
+        heaps.forEach((k, heap) -> result.put(k, heap.toList()));
+        return result;
+    }
+
+    /**
+     * 有界堆，堆顶为当前保留的最后一名
+     * <p>
+     * 按 order 与出现顺序比较，排序相同时先出现的在前，淘汰时先淘汰后出现的。
+     * </p>
+     *
+     * @param <T> 数据类型
+     */
+    private static final class TopN<T> {
+        private final Comparator<Entry<T>> order;
+        private final int limit;
+        private final PriorityQueue<Entry<T>> heap;
+        private long sequence;
+
+        TopN(Comparator<? super T> order, int limit) {
+            this.order = Comparator.<Entry<T>, T>comparing(Entry::value, order).thenComparingLong(Entry::sequence);
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 16), this.order.reversed());
+        }
+
+        void offer(T t) {
+            Entry<T> entry = new Entry<>(t, this.sequence++);
+            if (this.heap.size() < this.limit) {
+                this.heap.add(entry);
+            } else if (this.order.compare(entry, this.heap.peek()) < 0) {
+                this.heap.poll();
+                this.heap.add(entry);
+            }
+        }
+
+        List<T> toList() {
+            List<Entry<T>> entries = new ArrayList<>(this.heap);
+            entries.sort(this.order);
+            List<T> list = new ArrayList<>(entries.size());
+            for (Entry<T> entry : entries) {
+                list.add(entry.value());
+            }
+            return list;
+        }
+    }
+
+    private record Entry<T>(T value, long sequence) {
+    }
+}
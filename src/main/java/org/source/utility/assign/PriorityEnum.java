@@ -0,0 +1,27 @@
+package org.source.utility.assign;
+
+/**
+ * 执行优先级枚举
+ * <p>
+ * 使用 {@link FairScheduler} 时，高优先级 Assign 的任务优先执行，低优先级的任务让出工作线程；
+ * 为避免饥饿，较低优先级在一段时间（aging）内未被执行时会被调度一次。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public enum PriorityEnum {
+    /**
+     * 高优先级，如页面交互请求
+     */
+    HIGH,
+
+    /**
+     * 普通优先级，默认值
+     */
+    NORMAL,
+
+    /**
+     * 低优先级，如定时导出等批处理任务
+     */
+    LOW
+}
@@ -0,0 +1,66 @@
+package org.source.utility.assign;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 执行报告输出模式枚举
+ * <p>
+ * 定义根 Assign 执行完毕后是否输出 JSON 执行报告。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public enum ReportModeEnum {
+    /**
+     * 不输出
+     */
+    OFF,
+
+    /**
+     * 每次执行都输出
+     */
+    ALWAYS {
+        @Override
+        public boolean shouldReport(int sampleRate, long slowThresholdNanos, long durationNanos) {
+            return true;
+        }
+    },
+
+    /**
+     * 抽样输出
+     * <p>
+     * 平均每 sampleRate 次执行输出一次。
+     * </p>
+     */
+    SAMPLED {
+        @Override
+        public boolean shouldReport(int sampleRate, long slowThresholdNanos, long durationNanos) {
+            return sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+        }
+    },
+
+    /**
+     * 慢执行输出
+     * <p>
+     * 只有执行耗时达到阈值时才输出。
+     * </p>
+     */
+    SLOW {
+        @Override
+        public boolean shouldReport(int sampleRate, long slowThresholdNanos, long durationNanos) {
+            return durationNanos >= slowThresholdNanos;
+        }
+    };
+
+    /**
+     * 判断本次执行是否输出报告
+     *
+     * @param sampleRate         抽样比例，1/sampleRate
+     * @param slowThresholdNanos 慢执行阈值（纳秒）
+     * @param durationNanos      本次执行耗时（纳秒）
+     * @return true 表示输出
+     */
+    public boolean shouldReport(int sampleRate, long slowThresholdNanos, long durationNanos) {
+        return false;
+    }
+}
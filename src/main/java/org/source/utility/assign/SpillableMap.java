@@ -0,0 +1,201 @@
+package org.source.utility.assign;
+
+import com.fasterxml.jackson.databind.JavaType;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.enums.BaseExceptionEnum;
+import org.source.utility.utils.Jsons;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 超出内存上限后写入临时文件的 Map
+ * <p>
+ * 前 maxInMemory 条数据保存在内存中，之后的数据以 JSON（{@link Jsons#bytes(Object)}）追加写入临时文件，
+ * 内存中只保留 key 到文件位置的索引，读取时按位置读出并反序列化。
+ * 临时文件在 Map 不可达后由 {@link Cleaner} 关闭并删除，也可以调用 {@link #close()} 立即删除。
+ * </p>
+ * <p>
+ * 支持多线程写入（分批获取时各批次并发写入），不支持删除。
+ * </p>
+ *
+ * @param <K> Key 类型
+ * @param <V> 值类型
+ * @author zengfugen
+ */
+final class SpillableMap<K, V> extends AbstractMap<K, V> implements AutoCloseable {
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final String FILE_PREFIX = "assign-spill-";
+
+    private final int maxInMemory;
+    private final JavaType valueType;
+    private final Map<K, V> memory;
+    private final Map<K, Slot> spilled = new ConcurrentHashMap<>();
+    private final AtomicInteger inMemory = new AtomicInteger();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private @Nullable Spill spill;
+    private Cleaner.@Nullable Cleanable cleanable;
+
+    /**
+     * 构造函数
+     *
+     * @param maxInMemory 内存中最多保存的数据量
+     * @param valueType   值类型，用于反序列化
+     */
+    SpillableMap(int maxInMemory, JavaType valueType) {
+        this.maxInMemory = maxInMemory;
+        this.valueType = valueType;
+        this.memory = new ConcurrentHashMap<>(Math.min(maxInMemory, 1 << 16));
+    }
+
+    @Override
+    public @Nullable V put(K key, V value) {
+        if (this.memory.containsKey(key) || this.inMemory.incrementAndGet() <= this.maxInMemory) {
+            return this.memory.put(key, value);
+        }
+        this.inMemory.decrementAndGet();
+        byte[] bytes = Jsons.bytes(value);
+        this.writeLock.lock();
+        try {
+            Spill s = this.spill();
+            long position = s.channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                s.channel.write(buffer, position + buffer.position());
+            }
+            this.spilled.put(key, new Slot(position, bytes.length));
+        } catch (IOException e) {
+            throw BaseExceptionEnum.ASSIGN_SPILL_EXCEPTION.newException(e);
+        } finally {
+            this.writeLock.unlock();
+        }
+        return null;
+    }
+
+    @Override
+    public @Nullable V get(Object key) {
+        V v = this.memory.get(key);
+        if (Objects.nonNull(v)) {
+            return v;
+        }
+        Slot slot = this.spilled.get(key);
+        return Objects.isNull(slot) ? null : this.read(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.memory.containsKey(key) || this.spilled.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.memory.size() + this.spilled.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.memory.isEmpty() && this.spilled.isEmpty();
+    }
+
+    /**
+     * 写入临时文件的数据量
+     *
+     * @return 数据量
+     */
+    int spilledSize() {
+        return this.spilled.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Entry<K, V>> m = SpillableMap.this.memory.entrySet().iterator();
+                Iterator<Entry<K, Slot>> s = SpillableMap.this.spilled.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return m.hasNext() || s.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (m.hasNext()) {
+                            return m.next();
+                        }
+                        Entry<K, Slot> e = s.next();
+                        return new SimpleImmutableEntry<>(e.getKey(), SpillableMap.this.read(e.getValue()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SpillableMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * 关闭并删除临时文件
+     */
+    @Override
+    public void close() {
+        if (Objects.nonNull(this.cleanable)) {
+            this.cleanable.clean();
+        }
+    }
+
+    private V read(Slot slot) {
+        ByteBuffer buffer = ByteBuffer.allocate(slot.length);
+        try {
+            FileChannel channel = Objects.requireNonNull(this.spill).channel;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, slot.position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw BaseExceptionEnum.ASSIGN_SPILL_EXCEPTION.newException(e);
+        }
+        return Jsons.obj(buffer.array(), this.valueType);
+    }
+
+    private Spill spill() throws IOException {
+        if (Objects.isNull(this.spill)) {
+            Path path = Files.createTempFile(FILE_PREFIX, ".json");
+            Spill s = new Spill(FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE));
+            this.cleanable = CLEANER.register(this, s);
+            this.spill = s;
+        }
+        return this.spill;
+    }
+
+    private record Slot(long position, int length) {
+    }
+
+    /**
+     * 临时文件，不引用 Map 本身，以便 Map 不可达后由 Cleaner 关闭
+     */
+    private record Spill(FileChannel channel) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+                // 关闭失败时临时文件由操作系统清理
+            }
+        }
+    }
+}
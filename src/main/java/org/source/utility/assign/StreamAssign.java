@@ -0,0 +1,188 @@
+package org.source.utility.assign;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.enums.BaseExceptionEnum;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式批量赋值
+ * <p>
+ * {@link Assign} 需要将全部 mainData 加载到内存中，对于千万级的导出等场景，
+ * StreamAssign 从 {@link Stream} / {@link Iterator} 中按窗口（windowSize）拉取数据，
+ * 对每个窗口按同一个定义构建并执行 Assign，再将赋值后的数据逐条交给下游。
+ * </p>
+ * <ul>
+ *   <li>内存有界：同一时刻只持有一个窗口的数据</li>
+ *   <li>背压：下游消费完一个窗口后才会拉取下一个窗口</li>
+ *   <li>跨窗口复用：定义中未设置缓存的 Acquire 共享一个容量有限的 {@link BoundedCacheHandler}，
+ *   已获取过的 key 不会重复请求数据源</li>
+ * </ul>
+ * <pre>
+ *   StreamAssign.of(orderMapper.streamAll())
+ *       .windowSize(1000)
+ *       .define(a -> a.addAcquire(this::findUsers, UserDTO::getId)
+ *               .addAction(OrderDTO::getUserId)
+ *               .addAssemble(UserDTO::getName, OrderDTO::setUserName))
+ *       .forEach(writer::write);
+ * </pre>
+ *
+ * @param <E> 主数据类型
+ * @author zengfugen
+ */
+@Slf4j
+public class StreamAssign<E> {
+    public static final int WINDOW_SIZE_DEFAULT = 1000;
+    public static final int CACHE_SIZE_DEFAULT = 100_000;
+
+    private final Iterator<E> source;
+    private final @Nullable Runnable onClose;
+    private String name;
+    private int windowSize;
+    private int cacheSize;
+    private @Nullable Consumer<Assign<E>> definition;
+
+    private StreamAssign(Iterator<E> source, @Nullable Runnable onClose) {
+        this.source = source;
+        this.onClose = onClose;
+        this.name = "StreamAssign_" + this.hashCode();
+        this.windowSize = WINDOW_SIZE_DEFAULT;
+        this.cacheSize = CACHE_SIZE_DEFAULT;
+    }
+
+    public static <E> StreamAssign<E> of(Iterator<E> source) {
+        return new StreamAssign<>(source, null);
+    }
+
+    public static <E> StreamAssign<E> of(Stream<E> source) {
+        return new StreamAssign<>(source.iterator(), source::close);
+    }
+
+    public static <E> StreamAssign<E> of(Iterable<E> source) {
+        return new StreamAssign<>(source.iterator(), null);
+    }
+
+    /**
+     * 设置名称，作为每个窗口 Assign 的名称
+     *
+     * @param name 名称
+     * @return this
+     */
+    public StreamAssign<E> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * 设置窗口大小
+     *
+     * @param windowSize 每个窗口的数据量
+     * @return this
+     */
+    public StreamAssign<E> windowSize(int windowSize) {
+        if (windowSize <= 0) {
+            BaseExceptionEnum.BATCHSIZE_MUST_BE_POSITIVE.throwException("windowSize: {}", windowSize);
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    /**
+     * 设置跨窗口缓存的容量（每个 Acquire），0 表示不跨窗口复用
+     *
+     * @param cacheSize 缓存容量
+     * @return this
+     */
+    public StreamAssign<E> cacheSize(int cacheSize) {
+        this.cacheSize = Math.max(0, cacheSize);
+        return this;
+    }
+
+    /**
+     * 定义每个窗口的 Assign，如添加 Acquire、分支、并行执行等
+     *
+     * @param definition 定义
+     * @return this
+     */
+    public StreamAssign<E> define(Consumer<Assign<E>> definition) {
+        this.definition = definition;
+        return this;
+    }
+
+    /**
+     * 以 Stream 的形式输出赋值后的数据，Stream 是惰性的，终结操作拉取数据时才会执行赋值
+     *
+     * @return Stream
+     */
+    public Stream<E> stream() {
+        Iterator<E> iterator = this.iterator();
+        Stream<E> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+        if (Objects.nonNull(this.onClose)) {
+            stream = stream.onClose(this.onClose);
+        }
+        return stream;
+    }
+
+    /**
+     * 逐条消费赋值后的数据
+     *
+     * @param consumer 下游消费者
+     */
+    public void forEach(Consumer<E> consumer) {
+        try (Stream<E> stream = this.stream()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /**
+     * 以 Iterator 的形式输出赋值后的数据
+     *
+     * @return Iterator
+     */
+    public Iterator<E> iterator() {
+        Consumer<Assign<E>> def = Objects.requireNonNull(this.definition, "definition must be set by define()");
+        CacheHandler cacheHandler = this.cacheSize > 0 ? new BoundedCacheHandler(this.cacheSize) : null;
+        return new WindowIterator(new AssignTemplate<>(this.name, def, cacheHandler));
+    }
+
+    private final class WindowIterator implements Iterator<E> {
+        private final AssignTemplate<E> template;
+        private Iterator<E> window;
+        private int windowIndex;
+
+        private WindowIterator(AssignTemplate<E> template) {
+            this.template = template;
+            this.window = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.window.hasNext()) {
+                return true;
+            }
+            if (!source.hasNext()) {
+                return false;
+            }
+            List<E> es = new ArrayList<>(windowSize);
+            while (es.size() < windowSize && source.hasNext()) {
+                es.add(source.next());
+            }
+            log.debug("StreamAssign:{} window:{} size:{}", name, this.windowIndex++, es.size());
+            this.template.invoke(es);
+            this.window = es.iterator();
+            return this.window.hasNext();
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.window.next();
+        }
+    }
+}
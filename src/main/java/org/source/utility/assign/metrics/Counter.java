@@ -0,0 +1,24 @@
+package org.source.utility.assign.metrics;
+
+/**
+ * 计数器
+ *
+ * @author zengfugen
+ */
+@FunctionalInterface
+public interface Counter {
+
+    /**
+     * 增加指定数量
+     *
+     * @param amount 数量
+     */
+    void increment(long amount);
+
+    /**
+     * 加一
+     */
+    default void increment() {
+        this.increment(1);
+    }
+}
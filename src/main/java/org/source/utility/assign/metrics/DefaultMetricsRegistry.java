@@ -0,0 +1,161 @@
+package org.source.utility.assign.metrics;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.utils.AggregateTiming;
+import org.source.utility.utils.Timings;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 默认内存指标注册表实现
+ * <p>
+ * 计数器基于 {@link LongAdder}，耗时统计基于 {@link AggregateTiming}（次数、总耗时、最小/最大耗时、直方图）。
+ * 指标以 {@code name{tagKey=tagValue,...}} 作为唯一标识，可通过 {@code Jsons.str(registry)} 导出。
+ * </p>
+ * <p>
+ * 注意：Assign、Acquire 未设置 name 时默认名称包含 hashCode，每次执行都会产生新的指标，
+ * 开启指标时务必设置有意义的 name。
+ * </p>
+ *
+ * @author zengfugen
+ */
+@JsonPropertyOrder({"counters", "timers", "gauges"})
+public class DefaultMetricsRegistry implements MetricsRegistry {
+    private static final DefaultMetricsRegistry DEFAULT = new DefaultMetricsRegistry();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, AggregateTiming> timers = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * 全局共享的默认实例
+     *
+     * @return DefaultMetricsRegistry
+     */
+    public static DefaultMetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        LongAdder adder = this.counters.computeIfAbsent(id(name, tags), k -> new LongAdder());
+        return adder::add;
+    }
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        AggregateTiming timing = this.timers.computeIfAbsent(id(name, tags), k -> Timings.aggregate());
+        return timing::record;
+    }
+
+    @Override
+    public void gauge(String name, DoubleSupplier supplier, String... tags) {
+        this.gauges.put(id(name, tags), supplier);
+    }
+
+    /**
+     * 所有计数器的当前值
+     *
+     * @return key：指标标识，value：计数
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        this.counters.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    /**
+     * 所有耗时统计
+     *
+     * @return key：指标标识，value：聚合耗时
+     */
+    public Map<String, AggregateTiming> getTimers() {
+        return new TreeMap<>(this.timers);
+    }
+
+    /**
+     * 所有瞬时值指标的当前值
+     *
+     * @return key：指标标识，value：当前值
+     */
+    public Map<String, Double> getGauges() {
+        Map<String, Double> result = new TreeMap<>();
+        this.gauges.forEach((k, v) -> result.put(k, v.getAsDouble()));
+        return result;
+    }
+
+    /**
+     * 获取瞬时值指标的当前值
+     *
+     * @param name 指标名称
+     * @param tags key、value 交替的标签
+     * @return 当前值，不存在时返回 0
+     */
+    public double gaugeValue(String name, String... tags) {
+        DoubleSupplier supplier = this.gauges.get(id(name, tags));
+        return supplier == null ? 0 : supplier.getAsDouble();
+    }
+
+    /**
+     * 获取计数器的当前值
+     *
+     * @param name 指标名称
+     * @param tags key、value 交替的标签
+     * @return 计数，不存在时返回 0
+     */
+    public long count(String name, String... tags) {
+        LongAdder adder = this.counters.get(id(name, tags));
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 获取耗时统计
+     *
+     * @param name 指标名称
+     * @param tags key、value 交替的标签
+     * @return 聚合耗时，不存在时返回 null
+     */
+    public @Nullable AggregateTiming timing(String name, String... tags) {
+        return this.timers.get(id(name, tags));
+    }
+
+    /**
+     * 缓存命中率
+     *
+     * @param tags key、value 交替的标签
+     * @return 命中率，无缓存访问时返回 0
+     */
+    public double cacheHitRatio(String... tags) {
+        long hits = this.count(ACQUIRE_CACHE_HITS, tags);
+        long total = hits + this.count(ACQUIRE_CACHE_MISSES, tags);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 清空所有指标
+     */
+    public void clear() {
+        this.counters.clear();
+        this.timers.clear();
+        this.gauges.clear();
+    }
+
+    private static String id(String name, String... tags) {
+        if (tags.length == 0) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name).append('{');
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(tags[i]).append('=').append(tags[i + 1]);
+        }
+        return sb.append('}').toString();
+    }
+}
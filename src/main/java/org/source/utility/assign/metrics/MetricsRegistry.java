@@ -0,0 +1,141 @@
+package org.source.utility.assign.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 指标注册表接口
+ * <p>
+ * Assign 执行过程中的计数与耗时指标写入该注册表，可自定义实现以接入 Micrometer、Prometheus 等监控系统。
+ * tags 以 key、value 交替的形式传入，如 {@code counter(ACQUIRE_KEYS, TAG_ASSIGN, "order", TAG_ACQUIRE, "user")}。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public interface MetricsRegistry {
+    /**
+     * Assign.invoke 耗时
+     */
+    String ASSIGN_INVOKE = "assign.invoke";
+    /**
+     * Assign.invoke 执行结果计数，tag：status
+     */
+    String ASSIGN_STATUS = "assign.status";
+    /**
+     * 等待信号量的耗时
+     */
+    String ASSIGN_SEMAPHORE_WAIT = "assign.semaphore.wait";
+    /**
+     * Acquire.fetch 耗时
+     */
+    String ACQUIRE_FETCH = "assign.acquire.fetch";
+    /**
+     * 请求数据源的批次数
+     */
+    String ACQUIRE_BATCHES = "assign.acquire.batches";
+    /**
+     * 请求的 key 数量
+     */
+    String ACQUIRE_KEYS = "assign.acquire.keys";
+    /**
+     * 缓存命中的 key 数量
+     */
+    String ACQUIRE_CACHE_HITS = "assign.acquire.cache.hits";
+    /**
+     * 缓存未命中的 key 数量
+     */
+    String ACQUIRE_CACHE_MISSES = "assign.acquire.cache.misses";
+    /**
+     * 获取数据失败次数
+     */
+    String ACQUIRE_FAILURES = "assign.acquire.failures";
+    /**
+     * 合并获取时，由其他同源 Acquire 代为获取数据的 Acquire 数量
+     */
+    String ACQUIRE_MERGED = "assign.acquire.merged";
+    /**
+     * 按请求字段裁剪时跳过的 Acquire 数量
+     */
+    String ACQUIRE_PRUNED = "assign.acquire.pruned";
+    /**
+     * 超出内存上限后写入临时文件的获取结果数量
+     */
+    String ACQUIRE_SPILLED = "assign.acquire.spilled";
+    /**
+     * 由请求范围（FetchScope）内已获取的数据满足、无需请求的 key 数量
+     */
+    String ACQUIRE_SCOPE_HITS = "assign.acquire.scope.hits";
+    /**
+     * 正在虚拟线程中执行的任务数
+     */
+    String VIRTUAL_IN_FLIGHT = "assign.virtual.inflight";
+    /**
+     * 虚拟线程调度器的载体线程数
+     */
+    String VIRTUAL_CARRIER_PARALLELISM = "assign.virtual.carrier.parallelism";
+    /**
+     * 载体线程利用率（0~1）
+     */
+    String VIRTUAL_CARRIER_UTILISATION = "assign.virtual.carrier.utilisation";
+    /**
+     * 虚拟线程被固定（pin）在载体线程上的次数，由 utility-testkit 中的 {@code PinningDetector} 记录
+     */
+    String VIRTUAL_PINNED = "assign.virtual.pinned";
+
+    /**
+     * 公平调度器排队任务数
+     */
+    String SCHEDULER_QUEUED = "assign.scheduler.queued";
+    /**
+     * 公平调度器当前的队列数（正在执行的根 Assign 数）
+     */
+    String SCHEDULER_LANES = "assign.scheduler.lanes";
+    /**
+     * 公平调度器工作线程数
+     */
+    String SCHEDULER_WORKERS = "assign.scheduler.workers";
+    /**
+     * 任务在公平调度器中的排队耗时，tag：scheduler、priority
+     */
+    String SCHEDULER_QUEUE_WAIT = "assign.scheduler.queue.wait";
+    /**
+     * 公平调度器队列已满、由提交线程直接执行的任务数
+     */
+    String SCHEDULER_REJECTED = "assign.scheduler.rejected";
+
+    String TAG_ASSIGN = "assign";
+    String TAG_ACQUIRE = "acquire";
+    String TAG_STATUS = "status";
+    String TAG_SCHEDULER = "scheduler";
+    String TAG_PRIORITY = "priority";
+
+    /**
+     * 获取或创建计数器
+     *
+     * @param name 指标名称
+     * @param tags key、value 交替的标签
+     * @return 计数器
+     */
+    Counter counter(String name, String... tags);
+
+    /**
+     * 获取或创建耗时统计器
+     *
+     * @param name 指标名称
+     * @param tags key、value 交替的标签
+     * @return 耗时统计器
+     */
+    Timer timer(String name, String... tags);
+
+    /**
+     * 注册瞬时值指标，读取指标时调用 supplier 获取当前值
+     * <p>
+     * 默认不记录，需要瞬时值指标的实现类重写该方法。
+     * </p>
+     *
+     * @param name     指标名称
+     * @param supplier 当前值
+     * @param tags     key、value 交替的标签
+     */
+    default void gauge(String name, DoubleSupplier supplier, String... tags) {
+    }
+}
@@ -0,0 +1,28 @@
+package org.source.utility.assign.metrics;
+
+/**
+ * 不记录任何指标的注册表，Assign 未开启指标时使用
+ *
+ * @author zengfugen
+ */
+public final class NoopMetricsRegistry implements MetricsRegistry {
+    public static final NoopMetricsRegistry INSTANCE = new NoopMetricsRegistry();
+
+    private static final Counter NOOP_COUNTER = amount -> {
+    };
+    private static final Timer NOOP_TIMER = nanos -> {
+    };
+
+    private NoopMetricsRegistry() {
+    }
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        return NOOP_COUNTER;
+    }
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        return NOOP_TIMER;
+    }
+}
@@ -0,0 +1,17 @@
+package org.source.utility.assign.metrics;
+
+/**
+ * 耗时统计器
+ *
+ * @author zengfugen
+ */
+@FunctionalInterface
+public interface Timer {
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    void record(long nanos);
+}
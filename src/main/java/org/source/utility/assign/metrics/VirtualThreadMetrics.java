@@ -0,0 +1,146 @@
+package org.source.utility.assign.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 虚拟线程相关指标
+ * <p>
+ * JDK21 未提供虚拟线程调度器的监控接口，这里通过以下方式近似：
+ * <ul>
+ *   <li>in-flight：Assign 在虚拟线程中执行（已获取信号量）的任务数</li>
+ *   <li>载体线程利用率：两次采样之间所有载体线程（CarrierThreads 线程组）的 CPU 时间之和，
+ *   除以墙钟时间与载体线程数的乘积。阻塞在 IO 上的虚拟线程已卸载，不计入；被固定（pin）的虚拟线程阻塞时不消耗 CPU，
+ *   也不计入，因此利用率偏低而 in-flight 偏高时，应检查 fetcher 中的 synchronized 等导致固定的代码</li>
+ * </ul>
+ * 载体线程通过线程组枚举（不获取线程栈），只在读取利用率指标时采样。
+ * 通过 {@link #bindTo(MetricsRegistry)} 注册为瞬时值指标，{@code Assign.metrics(registry)} 会自动注册，每个注册表只注册一次。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public final class VirtualThreadMetrics {
+    private static final String CARRIER_THREAD_GROUP = "CarrierThreads";
+    private static final int CARRIER_PARALLELISM = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final Set<MetricsRegistry> BOUND = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final ReentrantLock SAMPLE_LOCK = new ReentrantLock();
+    private static long lastSampleNanos;
+    private static long lastCarrierCpuNanos;
+    private static double lastUtilisation;
+
+    private VirtualThreadMetrics() {
+    }
+
+    /**
+     * 虚拟线程任务开始执行
+     */
+    public static void enter() {
+        IN_FLIGHT.incrementAndGet();
+    }
+
+    /**
+     * 虚拟线程任务执行结束
+     */
+    public static void exit() {
+        IN_FLIGHT.decrementAndGet();
+    }
+
+    /**
+     * 正在虚拟线程中执行的任务数
+     *
+     * @return 任务数
+     */
+    public static int getInFlight() {
+        return IN_FLIGHT.get();
+    }
+
+    /**
+     * 虚拟线程调度器的载体线程数
+     *
+     * @return 载体线程数
+     */
+    public static int getCarrierParallelism() {
+        return CARRIER_PARALLELISM;
+    }
+
+    /**
+     * 自上次采样以来的载体线程利用率，首次调用只记录采样点并返回 0，采样间隔过短（小于 10ms）时返回上次的结果
+     *
+     * @return 利用率（0~1）
+     */
+    public static double carrierUtilisation() {
+        SAMPLE_LOCK.lock();
+        try {
+            long now = System.nanoTime();
+            if (lastSampleNanos == 0) {
+                lastSampleNanos = now;
+                lastCarrierCpuNanos = carrierCpuNanos();
+                return lastUtilisation;
+            }
+            long wall = now - lastSampleNanos;
+            if (wall < 10_000_000L) {
+                return lastUtilisation;
+            }
+            long cpu = carrierCpuNanos();
+            lastUtilisation = Math.clamp((double) (cpu - lastCarrierCpuNanos) / ((double) wall * CARRIER_PARALLELISM), 0D, 1D);
+            lastSampleNanos = now;
+            lastCarrierCpuNanos = cpu;
+            return lastUtilisation;
+        } finally {
+            SAMPLE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * 注册为瞬时值指标，同一注册表重复调用时忽略
+     *
+     * @param registry 指标注册表
+     */
+    public static void bindTo(MetricsRegistry registry) {
+        if (!BOUND.add(registry)) {
+            return;
+        }
+        registry.gauge(MetricsRegistry.VIRTUAL_IN_FLIGHT, VirtualThreadMetrics::getInFlight);
+        registry.gauge(MetricsRegistry.VIRTUAL_CARRIER_PARALLELISM, VirtualThreadMetrics::getCarrierParallelism);
+        registry.gauge(MetricsRegistry.VIRTUAL_CARRIER_UTILISATION, VirtualThreadMetrics::carrierUtilisation);
+    }
+
+    private static long carrierCpuNanos() {
+        ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        if (!mxBean.isThreadCpuTimeSupported()) {
+            return 0;
+        }
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        if (Objects.isNull(root)) {
+            return 0;
+        }
+        while (Objects.nonNull(root.getParent())) {
+            root = root.getParent();
+        }
+        // 枚举线程不获取线程栈，不会触发安全点
+        Thread[] threads = new Thread[root.activeCount() + 16];
+        int count = root.enumerate(threads, true);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            Thread thread = threads[i];
+            ThreadGroup group = thread.getThreadGroup();
+            if (group != null && CARRIER_THREAD_GROUP.equals(group.getName())) {
+                long cpu = mxBean.getThreadCpuTime(thread.threadId());
+                if (cpu > 0) {
+                    total += cpu;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package org.source.utility.assign.metrics;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,122 @@
+package org.source.utility.assign.trace;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存链路追踪实现
+ * <p>
+ * 将已结束的 Span 保存在内存中，用于测试与调试，不适合在生产环境长期开启。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public class InMemoryTracer implements Tracer {
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final Queue<RecordedSpan> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Span startSpan(String name, @Nullable Span parent) {
+        long parentId = parent instanceof RecordedSpan recordedSpan ? recordedSpan.getId() : 0;
+        return new RecordedSpan(this, this.idGenerator.incrementAndGet(), parentId, name);
+    }
+
+    /**
+     * 已结束的 Span，按结束顺序排列
+     *
+     * @return Span 列表
+     */
+    public List<RecordedSpan> getSpans() {
+        return new ArrayList<>(this.spans);
+    }
+
+    /**
+     * 按名称查找已结束的 Span
+     *
+     * @param name Span 名称
+     * @return Span 列表
+     */
+    public List<RecordedSpan> getSpans(String name) {
+        return this.spans.stream().filter(s -> s.getName().equals(name)).toList();
+    }
+
+    /**
+     * 查找子 Span
+     *
+     * @param parent 父 Span
+     * @return 子 Span 列表
+     */
+    public List<RecordedSpan> getChildren(RecordedSpan parent) {
+        return this.spans.stream().filter(s -> s.getParentId() == parent.getId()).toList();
+    }
+
+    /**
+     * 清空已记录的 Span
+     */
+    public void clear() {
+        this.spans.clear();
+    }
+
+    /**
+     * 内存中记录的 Span
+     */
+    @Getter
+    @JsonPropertyOrder({"id", "parentId", "name", "threadName", "threadId", "startNanos", "endNanos", "tags", "error"})
+    public static class RecordedSpan implements Span {
+        @Getter(AccessLevel.NONE)
+        private final InMemoryTracer tracer;
+        private final long id;
+        private final long parentId;
+        private final String name;
+        private final String threadName;
+        private final long threadId;
+        private final long startNanos;
+        private volatile long endNanos;
+        private final Map<String, String> tags;
+        private volatile @Nullable String error;
+
+        RecordedSpan(InMemoryTracer tracer, long id, long parentId, String name) {
+            this.tracer = tracer;
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.threadName = Thread.currentThread().getName();
+            this.threadId = Thread.currentThread().threadId();
+            this.tags = new ConcurrentHashMap<>();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public Span tag(String key, String value) {
+            this.tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void error(Throwable throwable) {
+            this.error = throwable.toString();
+        }
+
+        @Override
+        public void end() {
+            this.endNanos = System.nanoTime();
+            this.tracer.spans.add(this);
+        }
+
+        /**
+         * Span 耗时
+         *
+         * @return 耗时（纳秒）
+         */
+        public long getDurationNanos() {
+            return this.endNanos - this.startNanos;
+        }
+    }
+}
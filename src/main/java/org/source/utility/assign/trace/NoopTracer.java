@@ -0,0 +1,37 @@
+package org.source.utility.assign.trace;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 不做任何记录的链路追踪实现，Assign 未开启链路追踪时使用
+ *
+ * @author zengfugen
+ */
+public final class NoopTracer implements Tracer {
+    public static final NoopTracer INSTANCE = new NoopTracer();
+
+    private static final Span NOOP_SPAN = new Span() {
+        @Override
+        public Span tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void error(Throwable throwable) {
+            // noop
+        }
+
+        @Override
+        public void end() {
+            // noop
+        }
+    };
+
+    private NoopTracer() {
+    }
+
+    @Override
+    public Span startSpan(String name, @Nullable Span parent) {
+        return NOOP_SPAN;
+    }
+}
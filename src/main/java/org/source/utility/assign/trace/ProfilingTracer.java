@@ -0,0 +1,213 @@
+package org.source.utility.assign.trace;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.source.utility.utils.Jsons;
+
+import java.util.*;
+
+/**
+ * 执行剖析
+ * <p>
+ * 在 {@link InMemoryTracer} 记录的 Span（invoke、fetch、分批请求、分支、子任务与等待信号量，纳秒时间戳）基础上，
+ * 计算决定端到端耗时的关键路径，并区分等待信号量与实际执行的时间；
+ * 结果可导出为 JSON 或 Chrome trace-event 格式（在 chrome://tracing 或 Perfetto 中打开）。
+ * </p>
+ * <p>
+ * 关键路径的计算：从根 Span 的结束时间向前，每次选择在当前时间点之前最晚结束的子 Span，
+ * 再以该子 Span 的开始时间为新的时间点，直到没有更早的子 Span；对选中的子 Span 递归计算。
+ * 并行执行的子 Span 中只有最晚结束的一个在关键路径上。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public class ProfilingTracer extends InMemoryTracer {
+    /**
+     * 分析已结束的 Span
+     * <p>
+     * 存在多个根 Span（如多次 invoke）时，视为同一个虚拟根 Span 的子 Span。
+     * </p>
+     *
+     * @return 剖析结果
+     */
+    public Profile profile() {
+        List<RecordedSpan> spans = this.getSpans();
+        if (spans.isEmpty()) {
+            return new Profile(0, 0, 0, 0, 0, 0, List.of());
+        }
+        Map<Long, RecordedSpan> byId = HashMap.newHashMap(spans.size());
+        spans.forEach(s -> byId.put(s.getId(), s));
+        Map<Long, List<RecordedSpan>> children = new HashMap<>();
+        List<RecordedSpan> roots = new ArrayList<>();
+        long origin = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        long semaphoreWait = 0;
+        long busy = 0;
+        for (RecordedSpan s : spans) {
+            origin = Math.min(origin, s.getStartNanos());
+            last = Math.max(last, s.getEndNanos());
+            if (byId.containsKey(s.getParentId())) {
+                children.computeIfAbsent(s.getParentId(), k -> new ArrayList<>()).add(s);
+            } else {
+                roots.add(s);
+            }
+        }
+        for (RecordedSpan s : spans) {
+            if (isSemaphoreWait(s)) {
+                semaphoreWait += s.getDurationNanos();
+            } else if (!children.containsKey(s.getId())) {
+                busy += s.getDurationNanos();
+            }
+        }
+        List<PathNode> path = new ArrayList<>();
+        if (roots.size() == 1) {
+            this.walk(roots.get(0), children.getOrDefault(roots.get(0).getId(), List.of()), children, origin, path);
+        } else {
+            this.walkChildren(last, roots, children, origin, path);
+        }
+        long pathWait = 0;
+        for (PathNode node : path) {
+            if (Tracer.SPAN_SEMAPHORE_WAIT.equals(node.name())) {
+                pathWait += node.durationNanos();
+            }
+        }
+        return new Profile(last - origin, sumSelf(path), semaphoreWait, pathWait, busy, spans.size(), path);
+    }
+
+    /**
+     * 剖析结果的 JSON
+     *
+     * @return JSON
+     */
+    public String toJson() {
+        return Jsons.str(this.profile());
+    }
+
+    /**
+     * Chrome trace-event 格式的 JSON，每个 Span 为一个完整事件（ph=X），每个线程为一行
+     *
+     * @return JSON
+     */
+    public String toChromeTrace() {
+        List<RecordedSpan> spans = this.getSpans();
+        long origin = spans.stream().mapToLong(RecordedSpan::getStartNanos).min().orElse(0);
+        // 虚拟线程没有名称，按线程 ID 区分
+        Map<Long, String> threadNames = new LinkedHashMap<>();
+        List<Map<String, Object>> events = new ArrayList<>(spans.size() + 8);
+        for (RecordedSpan s : spans) {
+            threadNames.putIfAbsent(s.getThreadId(), s.getThreadName().isEmpty() ? "virtual-" + s.getThreadId() : s.getThreadName());
+            Map<String, Object> args = new TreeMap<>(s.getTags());
+            if (Objects.nonNull(s.getError())) {
+                args.put("error", s.getError());
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", s.getName());
+            event.put("cat", isSemaphoreWait(s) ? "wait" : "assign");
+            event.put("ph", "X");
+            event.put("ts", (s.getStartNanos() - origin) / 1000.0);
+            event.put("dur", s.getDurationNanos() / 1000.0);
+            event.put("pid", 1);
+            event.put("tid", (int) s.getThreadId());
+            event.put("args", args);
+            events.add(event);
+        }
+        threadNames.forEach((threadId, threadName) -> events.add(Map.of("name", "thread_name", "ph", "M", "pid", 1,
+                "tid", threadId.intValue(), "args", Map.of("name", threadName))));
+        return Jsons.str(Map.of("traceEvents", events, "displayTimeUnit", "ns"));
+    }
+
+    private void walk(RecordedSpan span,
+                      List<RecordedSpan> spanChildren,
+                      Map<Long, List<RecordedSpan>> children,
+                      long origin,
+                      List<PathNode> path) {
+        List<PathNode> childPath = new ArrayList<>();
+        long critical = this.walkChildren(span.getEndNanos(), spanChildren, children, origin, childPath);
+        path.add(new PathNode(span.getName(), span.getTags(), span.getThreadName(),
+                span.getStartNanos() - origin, span.getDurationNanos(), Math.max(0, span.getDurationNanos() - critical)));
+        path.addAll(childPath);
+    }
+
+    /**
+     * 选出关键路径上的子 Span 并递归
+     *
+     * @return 关键路径上子 Span 的耗时之和
+     */
+    private long walkChildren(long end,
+                              List<RecordedSpan> spanChildren,
+                              Map<Long, List<RecordedSpan>> children,
+                              long origin,
+                              List<PathNode> path) {
+        if (spanChildren.isEmpty()) {
+            return 0;
+        }
+        List<RecordedSpan> sorted = new ArrayList<>(spanChildren);
+        sorted.sort(Comparator.comparingLong(RecordedSpan::getEndNanos).reversed());
+        Deque<RecordedSpan> chain = new ArrayDeque<>();
+        long cursor = end;
+        for (RecordedSpan child : sorted) {
+            if (child.getEndNanos() <= cursor) {
+                chain.addFirst(child);
+                cursor = child.getStartNanos();
+            }
+        }
+        long critical = 0;
+        for (RecordedSpan child : chain) {
+            critical += child.getDurationNanos();
+            this.walk(child, children.getOrDefault(child.getId(), List.of()), children, origin, path);
+        }
+        return critical;
+    }
+
+    private static long sumSelf(List<PathNode> path) {
+        long sum = 0;
+        for (PathNode node : path) {
+            sum += node.selfNanos();
+        }
+        return sum;
+    }
+
+    private static boolean isSemaphoreWait(RecordedSpan span) {
+        return Tracer.SPAN_SEMAPHORE_WAIT.equals(span.getName());
+    }
+
+    /**
+     * 剖析结果
+     *
+     * @param wallNanos                  第一个 Span 开始到最后一个 Span 结束的耗时
+     * @param criticalPathNanos          关键路径上各 Span 自身耗时之和
+     * @param semaphoreWaitNanos         所有任务等待信号量的耗时之和
+     * @param criticalSemaphoreWaitNanos 关键路径上等待信号量的耗时
+     * @param busyNanos                  叶子 Span（实际请求数据源等）执行耗时之和，并行执行时可能大于 wallNanos
+     * @param spanCount                  Span 数量
+     * @param criticalPath               关键路径，按开始时间排列，父 Span 在子 Span 之前
+     */
+    @JsonPropertyOrder({"wallNanos", "criticalPathNanos", "semaphoreWaitNanos", "criticalSemaphoreWaitNanos",
+            "busyNanos", "spanCount", "criticalPath"})
+    public record Profile(long wallNanos,
+                          long criticalPathNanos,
+                          long semaphoreWaitNanos,
+                          long criticalSemaphoreWaitNanos,
+                          long busyNanos,
+                          int spanCount,
+                          List<PathNode> criticalPath) {
+    }
+
+    /**
+     * 关键路径上的 Span
+     *
+     * @param name          Span 名称
+     * @param tags          标签
+     * @param threadName    线程名称
+     * @param startNanos    相对第一个 Span 开始时间的偏移
+     * @param durationNanos 耗时
+     * @param selfNanos     扣除关键路径上子 Span 后的自身耗时
+     */
+    @JsonPropertyOrder({"name", "tags", "threadName", "startNanos", "durationNanos", "selfNanos"})
+    public record PathNode(String name,
+                           Map<String, String> tags,
+                           String threadName,
+                           long startNanos,
+                           long durationNanos,
+                           long selfNanos) {
+    }
+}
@@ -0,0 +1,43 @@
+package org.source.utility.assign.trace;
+
+/**
+ * 链路追踪的 Span
+ *
+ * @author zengfugen
+ */
+public interface Span {
+
+    /**
+     * 添加标签
+     *
+     * @param key   标签名
+     * @param value 标签值
+     * @return this
+     */
+    Span tag(String key, String value);
+
+    /**
+     * 记录异常
+     *
+     * @param throwable 异常
+     */
+    void error(Throwable throwable);
+
+    /**
+     * 结束 Span
+     */
+    void end();
+
+    /**
+     * 批量添加标签
+     *
+     * @param tags key、value 交替的标签
+     * @return this
+     */
+    default Span tags(String... tags) {
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            this.tag(tags[i], tags[i + 1]);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,84 @@
+package org.source.utility.assign.trace;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 当前线程的 Span 上下文
+ * <p>
+ * 基于 {@link TransmittableThreadLocal}，在 Assign 默认的 TTL 线程池中自动传递；
+ * 对于自定义线程池，Assign 在提交任务时显式捕获父 Span，见 {@link #wrap(Function)}。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public final class TraceContext {
+    private static final TransmittableThreadLocal<Span> CURRENT = new TransmittableThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    /**
+     * 当前线程的 Span
+     *
+     * @return Span，不存在时返回 null
+     */
+    public static @Nullable Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 将 Span 设置为当前线程的 Span，关闭返回的 Scope 时恢复原来的 Span
+     *
+     * @param span Span
+     * @return Scope
+     */
+    public static Scope activate(@Nullable Span span) {
+        Span previous = CURRENT.get();
+        set(span);
+        return () -> set(previous);
+    }
+
+    /**
+     * 捕获调用线程当前的 Span，在执行 function 的线程中恢复
+     *
+     * @param function 函数
+     * @param <T>      参数类型
+     * @param <R>      返回值类型
+     * @return 包装后的函数
+     */
+    public static <T, R> Function<T, @Nullable R> wrap(Function<T, @Nullable R> function) {
+        Span parent = current();
+        if (Objects.isNull(parent)) {
+            return function;
+        }
+        return t -> {
+            Scope scope = activate(parent);
+            try {
+                return function.apply(t);
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    private static void set(@Nullable Span span) {
+        if (Objects.isNull(span)) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+
+    /**
+     * Span 作用域
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,33 @@
+package org.source.utility.assign.trace;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 链路追踪接口
+ * <p>
+ * Assign 在 invoke、Acquire.fetch、分批请求、分支与子任务处打开 Span，
+ * 可自定义实现以接入 OpenTelemetry、SkyWalking 等链路追踪系统。
+ * </p>
+ *
+ * @author zengfugen
+ */
+public interface Tracer {
+    String SPAN_ASSIGN_INVOKE = "assign.invoke";
+    String SPAN_ACQUIRE_FETCH = "assign.acquire.fetch";
+    String SPAN_ACQUIRE_PARTITION = "assign.acquire.partition";
+    String SPAN_BRANCH = "assign.branch";
+    String SPAN_SUB = "assign.sub";
+    /**
+     * 开启并发数限制（Semaphore）时，任务等待许可的时间
+     */
+    String SPAN_SEMAPHORE_WAIT = "assign.semaphore.wait";
+
+    /**
+     * 开始一个 Span
+     *
+     * @param name   Span 名称
+     * @param parent 父 Span，为 null 时表示根 Span
+     * @return Span
+     */
+    Span startSpan(String name, @Nullable Span parent);
+}
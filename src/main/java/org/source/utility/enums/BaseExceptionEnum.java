@@ -65,6 +65,7 @@ public enum BaseExceptionEnum implements EnumProcessor<BaseException> {
      */
     ASSIGN_ACQUIRE_RUN_EXCEPTION("assign acquire exception"),
     ASSIGN_PARALLEL_EXECUTE_EXCEPTION("assign parallel execute exception"),
+    ASSIGN_SPILL_EXCEPTION("assign spill to disk exception"),
     /**
      * thread
      */
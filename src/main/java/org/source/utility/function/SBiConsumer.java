@@ -0,0 +1,8 @@
+package org.source.utility.function;
+
+import java.io.Serializable;
+import java.util.function.BiConsumer;
+
+public interface SBiConsumer<T, U> extends BiConsumer<T, U>, Serializable {
+
+}
@@ -0,0 +1,172 @@
+package org.source.utility.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 聚合时间统计信息
+ * <p>
+ * 与 {@link Timing} 记录单次耗时不同，本类累计多次调用的次数、总耗时、最小/最大耗时，
+ * 并按 2 的幂次分桶记录耗时直方图。基于 {@link System#nanoTime()}，不创建任何对象，适合在逐条数据的循环中使用。
+ * </p>
+ * <pre>
+ *   long start = timing.start();
+ *   ...
+ *   timing.end(start);
+ * </pre>
+ *
+ * @author zengfugen
+ */
+@JsonPropertyOrder({"count", "total", "min", "max", "avg", "histogram"})
+public class AggregateTiming {
+    /**
+     * 直方图分桶数量，第 i 个桶记录耗时在 [2^i, 2^(i+1)) 纳秒之间的次数
+     */
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong min;
+    private final AtomicLong max;
+    private final AtomicLongArray histogram;
+
+    AggregateTiming() {
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong(0);
+        this.histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * 当前统计的副本，之后累计的耗时不影响副本
+     *
+     * @return 副本
+     */
+    public AggregateTiming copy() {
+        AggregateTiming c = new AggregateTiming();
+        c.count.add(this.count.sum());
+        c.total.add(this.total.sum());
+        c.min.set(this.min.get());
+        c.max.set(this.max.get());
+        for (int i = 0; i < BUCKETS; i++) {
+            long h = this.histogram.get(i);
+            if (h > 0) {
+                c.histogram.set(i, h);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 开始时间（纳秒），作为 {@link #end(long)} 的参数
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束计时并累计耗时
+     *
+     * @param startNanos {@link #start()} 返回的开始时间
+     */
+    public void end(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 累计一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        this.count.increment();
+        this.total.add(nanos);
+        if (nanos < this.min.get()) {
+            this.min.accumulateAndGet(nanos, Math::min);
+        }
+        if (nanos > this.max.get()) {
+            this.max.accumulateAndGet(nanos, Math::max);
+        }
+        this.histogram.incrementAndGet(Math.max(0, BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)));
+    }
+
+    /**
+     * 累计次数
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    @JsonIgnore
+    public long getTotalNanos() {
+        return this.total.sum();
+    }
+
+    @JsonIgnore
+    public long getMinNanos() {
+        return this.getCount() == 0 ? 0 : this.min.get();
+    }
+
+    @JsonIgnore
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    @JsonIgnore
+    public long getAvgNanos() {
+        long c = this.getCount();
+        return c == 0 ? 0 : this.getTotalNanos() / c;
+    }
+
+    @JsonProperty("total")
+    public String getFormattedTotal() {
+        return Timings.formatDuration(Duration.ofNanos(this.getTotalNanos()));
+    }
+
+    @JsonProperty("min")
+    public String getFormattedMin() {
+        return Timings.formatDuration(Duration.ofNanos(this.getMinNanos()));
+    }
+
+    @JsonProperty("max")
+    public String getFormattedMax() {
+        return Timings.formatDuration(Duration.ofNanos(this.getMaxNanos()));
+    }
+
+    @JsonProperty("avg")
+    public String getFormattedAvg() {
+        return Timings.formatDuration(Duration.ofNanos(this.getAvgNanos()));
+    }
+
+    /**
+     * 耗时直方图，只包含非空的分桶
+     *
+     * @return key：分桶上限（不含），value：次数
+     */
+    @JsonProperty("histogram")
+    public Map<String, Long> getHistogram() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = this.histogram.get(i);
+            if (c > 0) {
+                long upper = i >= BUCKETS - 2 ? Long.MAX_VALUE : 1L << (i + 1);
+                result.put("<" + Timings.formatDuration(Duration.ofNanos(upper)), c);
+            }
+        }
+        return result;
+    }
+}
@@ -24,6 +24,21 @@ public class Timing {
         this.startTime = Instant.now();
     }
 
+    private Timing(Instant startTime, @Nullable Instant endTime, @Nullable Duration duration) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.duration = duration;
+    }
+
+    /**
+     * 当前状态的副本，之后调用 {@link #end()} 不影响副本
+     *
+     * @return 副本
+     */
+    public Timing copy() {
+        return new Timing(this.startTime, this.endTime, this.duration);
+    }
+
     /**
      * 结束计时
      */
@@ -17,6 +17,13 @@ public final class Timings {
         return new Timing();
     }
 
+    /**
+     * 创建一个新的聚合计时器，用于累计多次调用的耗时
+     */
+    public static AggregateTiming aggregate() {
+        return new AggregateTiming();
+    }
+
     /**
      * 格式化Duration，自动选择合适的单位
      * 规则：
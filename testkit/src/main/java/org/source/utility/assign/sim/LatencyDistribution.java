@@ -0,0 +1,69 @@
+package org.source.utility.assign.sim;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * 模拟数据源的延迟分布
+ *
+ * @author zengfugen
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * 取一次延迟
+     *
+     * @param random 调度器的随机数
+     * @return 延迟
+     */
+    Duration sample(Random random);
+
+    /**
+     * 固定延迟
+     *
+     * @param latency 延迟
+     * @return LatencyDistribution
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * 在 [min, max) 之间均匀分布
+     *
+     * @param min 最小延迟
+     * @param max 最大延迟
+     * @return LatencyDistribution
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long range = Math.max(1, max.toNanos() - minNanos);
+        return random -> Duration.ofNanos(minNanos + random.nextLong(range));
+    }
+
+    /**
+     * 指数分布，模拟排队等待等大部分请求较快、少数请求较慢的场景
+     *
+     * @param mean 平均延迟
+     * @return LatencyDistribution
+     */
+    static LatencyDistribution exponential(Duration mean) {
+        long meanNanos = mean.toNanos();
+        return random -> Duration.ofNanos((long) (-Math.log(1 - random.nextDouble()) * meanNanos));
+    }
+
+    /**
+     * 以 probability 的概率在原延迟上增加 tail，模拟 GC、慢查询等长尾
+     *
+     * @param probability 出现长尾的概率
+     * @param tail        长尾增加的延迟
+     * @return LatencyDistribution
+     */
+    default LatencyDistribution withTail(double probability, Duration tail) {
+        return random -> {
+            Duration latency = this.sample(random);
+            return random.nextDouble() < probability ? latency.plus(tail) : latency;
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package org.source.utility.assign.sim;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 模拟数据源
+ * <p>
+ * 包装一个内存中的获取函数，每次调用按 {@link LatencyDistribution} 在虚拟时钟上等待，
+ * 并按 failureRate 的概率抛出异常；可直接作为 {@code Assign.addAcquire(Function)} 的 fetcher。
+ * </p>
+ *
+ * @param <K> Key 类型
+ * @param <T> 数据类型
+ * @author zengfugen
+ */
+public class SimulatedFetcher<K, T> implements Function<Collection<K>, Map<K, T>> {
+    private final SimulationScheduler scheduler;
+    private final Function<Collection<K>, Map<K, T>> delegate;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong keys = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private LatencyDistribution latency = LatencyDistribution.fixed(Duration.ZERO);
+    private double failureRate;
+    private Supplier<? extends RuntimeException> failure = () -> new IllegalStateException("simulated failure");
+
+    private SimulatedFetcher(SimulationScheduler scheduler, Function<Collection<K>, Map<K, T>> delegate) {
+        this.scheduler = scheduler;
+        this.delegate = delegate;
+    }
+
+    /**
+     * 构造模拟数据源
+     *
+     * @param scheduler 模拟调度器
+     * @param delegate  返回数据的获取函数，如基于内存 Map 的实现
+     * @param <K>       Key 类型
+     * @param <T>       数据类型
+     * @return SimulatedFetcher
+     */
+    public static <K, T> SimulatedFetcher<K, T> of(SimulationScheduler scheduler,
+                                                   Function<Collection<K>, Map<K, T>> delegate) {
+        return new SimulatedFetcher<>(scheduler, delegate);
+    }
+
+    /**
+     * 设置延迟分布，默认无延迟
+     *
+     * @param latency 延迟分布
+     * @return this
+     */
+    public SimulatedFetcher<K, T> latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * 设置失败概率，失败在延迟之后发生
+     *
+     * @param failureRate 失败概率，0 ~ 1
+     * @return this
+     */
+    public SimulatedFetcher<K, T> failureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * 设置失败时抛出的异常
+     *
+     * @param failure 异常
+     * @return this
+     */
+    public SimulatedFetcher<K, T> failure(Supplier<? extends RuntimeException> failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    @Override
+    public Map<K, T> apply(Collection<K> ks) {
+        this.calls.incrementAndGet();
+        this.keys.addAndGet(ks.size());
+        this.scheduler.sleep(this.latency.sample(this.scheduler.random()));
+        if (this.failureRate > 0 && this.scheduler.random().nextDouble() < this.failureRate) {
+            this.failures.incrementAndGet();
+            throw this.failure.get();
+        }
+        return this.delegate.apply(ks);
+    }
+
+    /**
+     * 调用次数
+     *
+     * @return 次数
+     */
+    public long getCalls() {
+        return this.calls.get();
+    }
+
+    /**
+     * 请求的 key 数量
+     *
+     * @return 数量
+     */
+    public long getKeys() {
+        return this.keys.get();
+    }
+
+    /**
+     * 失败次数
+     *
+     * @return 次数
+     */
+    public long getFailures() {
+        return this.failures.get();
+    }
+}
@@ -0,0 +1,279 @@
+package org.source.utility.assign.sim;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.assign.CooperativeExecutor;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 确定性模拟调度器
+ * <p>
+ * 作为 Assign 的线程池（{@code assign.parallel(scheduler)}）使用：每个任务运行在独立的虚拟线程中，
+ * 但同一时刻只有一个任务（或调用 invoke 的线程）在执行，下一个执行的任务由固定种子的随机数选出；
+ * {@link #sleep(Duration)} 与等待超时使用虚拟时钟，没有可执行的任务时时钟直接跳到最早的唤醒时间。
+ * 相同的种子得到相同的执行顺序与虚拟耗时，用于在没有真实数据源的情况下重复验证吞吐、超时与取消行为。
+ * </p>
+ * <p>
+ * 实现了 {@link CooperativeExecutor}，Assign 等待任务完成时让出执行权，超时按虚拟时钟计算。
+ * 任务中不应使用真实的阻塞等待（如 {@code Thread.sleep}、信号量、其他任务持有的锁），
+ * 否则调度器无法切换任务；需要模拟耗时时使用 {@link #sleep(Duration)} 或 {@link SimulatedFetcher}。
+ * </p>
+ * <pre>{@code
+ * SimulationScheduler scheduler = new SimulationScheduler(42);
+ * SimulatedFetcher<Long, UserDTO> users = SimulatedFetcher.of(scheduler, this::findUsers)
+ *         .latency(LatencyDistribution.exponential(Duration.ofMillis(20)))
+ *         .failureRate(0.01);
+ * Assign.build(rows).parallel(scheduler).addAcquire(users)...invoke();
+ * scheduler.runUntilIdle();
+ * }</pre>
+ *
+ * @author zengfugen
+ */
+@Slf4j
+public class SimulationScheduler implements CooperativeExecutor {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Random random;
+    private final List<Actor> ready = new ArrayList<>();
+    private final PriorityQueue<Actor> sleeping = new PriorityQueue<>(
+            Comparator.comparingLong((Actor a) -> a.wakeAt).thenComparingLong(a -> a.seq));
+    private final ThreadLocal<Actor> current = new ThreadLocal<>();
+    private long nanoTime;
+    private long seq;
+    private long submitted;
+    private long completed;
+    private @Nullable Actor idleWaiter;
+
+    /**
+     * 构造函数
+     *
+     * @param seed 随机数种子，决定任务的执行顺序与 {@link LatencyDistribution} 的取值
+     */
+    public SimulationScheduler(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Actor actor;
+        this.lock.lock();
+        try {
+            actor = new Actor(this.seq++);
+            this.ready.add(actor);
+            this.submitted++;
+        } finally {
+            this.lock.unlock();
+        }
+        Thread.ofVirtual().name("sim-" + actor.seq).start(() -> {
+            this.current.set(actor);
+            actor.baton.acquireUninterruptibly();
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                log.error("simulation task exception", e);
+            } finally {
+                this.lock.lock();
+                try {
+                    this.completed++;
+                } finally {
+                    this.lock.unlock();
+                }
+                this.switchFrom(actor, false);
+            }
+        });
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Actor me = this.current();
+        this.lock.lock();
+        try {
+            if (!future.isDone()) {
+                me.wakeAt = this.nanoTime + unit.toNanos(timeout);
+                me.awaited = future;
+                this.sleeping.add(me);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        if (Objects.nonNull(me.awaited)) {
+            future.whenComplete((r, e) -> this.wake(me, future));
+            this.switchFrom(me, true);
+            me.awaited = null;
+        }
+        if (!future.isDone()) {
+            throw new TimeoutException(Duration.ofNanos(unit.toNanos(timeout)) + " of simulated time elapsed");
+        }
+        return future.get();
+    }
+
+    /**
+     * 在虚拟时钟上等待，期间执行其他任务
+     *
+     * @param duration 等待时间
+     */
+    public void sleep(Duration duration) {
+        Actor me = this.current();
+        this.lock.lock();
+        try {
+            me.wakeAt = this.nanoTime + Math.max(0, duration.toNanos());
+            this.sleeping.add(me);
+        } finally {
+            this.lock.unlock();
+        }
+        this.switchFrom(me, true);
+    }
+
+    /**
+     * 执行全部已提交的任务（包括超时后仍在执行的任务），直到没有可执行或等待中的任务
+     */
+    public void runUntilIdle() {
+        Actor me = this.current();
+        this.lock.lock();
+        try {
+            this.idleWaiter = me;
+        } finally {
+            this.lock.unlock();
+        }
+        this.switchFrom(me, true);
+    }
+
+    /**
+     * 虚拟时钟当前时间
+     *
+     * @return 纳秒
+     */
+    public long nanoTime() {
+        return this.nanoTime;
+    }
+
+    /**
+     * 虚拟时钟已经过的时间
+     *
+     * @return 时长
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(this.nanoTime);
+    }
+
+    /**
+     * 已提交的任务数量
+     *
+     * @return 数量
+     */
+    public long getSubmitted() {
+        return this.submitted;
+    }
+
+    /**
+     * 已执行完成的任务数量
+     *
+     * @return 数量
+     */
+    public long getCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * 尚未执行完成的任务数量，如等待超时后被放弃的任务
+     *
+     * @return 数量
+     */
+    public long getPending() {
+        return this.submitted - this.completed;
+    }
+
+    /**
+     * 当前执行的任务使用的随机数，同一时刻只有一个任务执行，取值顺序是确定的
+     *
+     * @return Random
+     */
+    Random random() {
+        return this.random;
+    }
+
+    private Actor current() {
+        Actor actor = this.current.get();
+        if (Objects.isNull(actor)) {
+            // 调用 invoke 的外部线程
+            this.lock.lock();
+            try {
+                actor = new Actor(this.seq++);
+            } finally {
+                this.lock.unlock();
+            }
+            this.current.set(actor);
+        }
+        return actor;
+    }
+
+    private void wake(Actor actor, CompletableFuture<?> future) {
+        this.lock.lock();
+        try {
+            if (actor.awaited == future && this.sleeping.remove(actor)) {
+                this.ready.add(actor);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 让出执行权：选出下一个任务并唤醒，blocking 为 true 时等待再次被选中
+     *
+     * @param me       当前任务
+     * @param blocking 当前任务是否等待再次被选中，任务结束时为 false
+     */
+    private void switchFrom(Actor me, boolean blocking) {
+        Actor next;
+        this.lock.lock();
+        try {
+            next = this.next();
+        } finally {
+            this.lock.unlock();
+        }
+        if (next == me) {
+            return;
+        }
+        if (Objects.nonNull(next)) {
+            next.baton.release();
+        } else if (blocking) {
+            throw new IllegalStateException("simulation deadlock, no runnable task at " + this.elapsed());
+        }
+        if (blocking) {
+            me.baton.acquireUninterruptibly();
+        }
+    }
+
+    private @Nullable Actor next() {
+        if (!this.ready.isEmpty()) {
+            return this.ready.remove(this.random.nextInt(this.ready.size()));
+        }
+        Actor sleeper = this.sleeping.poll();
+        if (Objects.nonNull(sleeper)) {
+            this.nanoTime = Math.max(this.nanoTime, sleeper.wakeAt);
+            return sleeper;
+        }
+        Actor waiter = this.idleWaiter;
+        this.idleWaiter = null;
+        return waiter;
+    }
+
+    /**
+     * 参与调度的任务或外部线程
+     */
+    private static final class Actor {
+        private final Semaphore baton = new Semaphore(0);
+        private final long seq;
+        private long wakeAt;
+        private volatile @Nullable CompletableFuture<?> awaited;
+
+        private Actor(long seq) {
+            this.seq = seq;
+        }
+    }
+}
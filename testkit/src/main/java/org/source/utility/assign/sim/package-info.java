@@ -0,0 +1,4 @@
+@NullMarked
+package org.source.utility.assign.sim;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,164 @@
+package org.source.utility.assign.testing;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.Nullable;
+import org.source.utility.assign.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程固定（pin）检测
+ * <p>
+ * 基于 JFR 事件 {@code jdk.VirtualThreadPinned}：虚拟线程在 synchronized 块或本地方法中阻塞时，
+ * 无法从载体线程卸载，阻塞超过阈值即记录一次。用于在测试或压测中确认数据获取路径上没有 synchronized 等固定载体线程的操作。
+ * </p>
+ * <pre>
+ *   try (PinningDetector detector = PinningDetector.start()) {
+ *       Assign.build(list).parallelVirtual()...invoke();
+ *       detector.stop();
+ *       assert detector.getCount() == 0 : detector.getEvents();
+ *   }
+ * </pre>
+ *
+ * @author zengfugen
+ */
+@Slf4j
+public class PinningDetector implements AutoCloseable {
+    private static final String EVENT_PINNED = "jdk.VirtualThreadPinned";
+    private static final int MAX_EVENTS = 1000;
+    private static final int MAX_FRAMES = 8;
+
+    private final RecordingStream stream;
+    private final @Nullable MetricsRegistry registry;
+    private final LongAdder count;
+    private final AtomicInteger retained;
+    private final Queue<PinnedEvent> events;
+
+    private PinningDetector(Duration threshold, @Nullable MetricsRegistry registry) {
+        this.registry = registry;
+        this.count = new LongAdder();
+        this.retained = new AtomicInteger();
+        this.events = new ConcurrentLinkedQueue<>();
+        this.stream = new RecordingStream();
+        this.stream.enable(EVENT_PINNED).withThreshold(threshold).withStackTrace();
+        this.stream.onEvent(EVENT_PINNED, this::onPinned);
+        this.stream.startAsync();
+    }
+
+    /**
+     * 开始检测，阻塞超过 20ms 的固定会被记录（与 JFR 默认配置一致）
+     *
+     * @return PinningDetector
+     */
+    public static PinningDetector start() {
+        return start(Duration.ofMillis(20), null);
+    }
+
+    /**
+     * 开始检测
+     *
+     * @param threshold 记录的最小阻塞时长，{@link Duration#ZERO} 表示全部记录
+     * @param registry  检测到固定时写入 {@link MetricsRegistry#VIRTUAL_PINNED} 计数，可为空
+     * @return PinningDetector
+     */
+    public static PinningDetector start(Duration threshold, @Nullable MetricsRegistry registry) {
+        return new PinningDetector(threshold, registry);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        this.count.increment();
+        if (this.registry != null) {
+            this.registry.counter(MetricsRegistry.VIRTUAL_PINNED).increment();
+        }
+        PinnedEvent pinned = new PinnedEvent(threadName(event.getThread()), event.getDuration(), frames(event.getStackTrace()));
+        log.warn("virtual thread pinned: {}", pinned);
+        if (this.retained.getAndIncrement() < MAX_EVENTS) {
+            this.events.add(pinned);
+        }
+    }
+
+    private static @Nullable String threadName(@Nullable RecordedThread thread) {
+        if (thread == null) {
+            return null;
+        }
+        // 虚拟线程默认没有名称
+        return StringUtils.isBlank(thread.getJavaName()) ? "#" + thread.getJavaThreadId() : thread.getJavaName();
+    }
+
+    private static String frames(@Nullable RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        return stackTrace.getFrames().stream().limit(MAX_FRAMES).map(PinningDetector::frame)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * 停止检测，等待已产生的事件全部处理完成后返回
+     */
+    public void stop() {
+        this.stream.stop();
+    }
+
+    @Override
+    public void close() {
+        this.stream.close();
+    }
+
+    /**
+     * 检测到的固定次数
+     *
+     * @return 次数
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * 检测到的固定事件，最多保留前 1000 个
+     *
+     * @return 固定事件
+     */
+    public List<PinnedEvent> getEvents() {
+        return new ArrayList<>(this.events);
+    }
+
+    /**
+     * 虚拟线程固定事件
+     */
+    @Getter
+    public static class PinnedEvent {
+        private final @Nullable String threadName;
+        private final Duration duration;
+        private final String stackTrace;
+
+        PinnedEvent(@Nullable String threadName, Duration duration, String stackTrace) {
+            this.threadName = threadName;
+            this.duration = duration;
+            this.stackTrace = stackTrace;
+        }
+
+        @Override
+        public String toString() {
+            return "PinnedEvent{thread=" + this.threadName + ", duration=" + this.duration + ", stack=" + this.stackTrace + "}";
+        }
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package org.source.utility.assign.testing;
+
+import org.jspecify.annotations.NullMarked;
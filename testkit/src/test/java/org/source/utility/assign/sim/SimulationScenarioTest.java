@@ -0,0 +1,145 @@
+package org.source.utility.assign.sim;
+
+import org.junit.jupiter.api.Test;
+import org.source.utility.assign.Assign;
+import org.source.utility.exception.BaseException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按种子重复执行的并发场景
+ *
+ * @author zengfugen
+ */
+class SimulationScenarioTest {
+    private static final int SEEDS = 50;
+
+    /**
+     * 分批请求的各批次并发写入同一个 ktMap：ktMap 必须在分发批次之前创建，任何执行顺序下都不能丢失数据
+     */
+    @Test
+    void partitionsWriteSharedKtMap() {
+        for (long seed = 0; seed < SEEDS; seed++) {
+            Outcome first = this.runPartitions(seed);
+            assertEquals(first, this.runPartitions(seed), "seed=" + seed);
+            assertEquals(0, first.pending(), "seed=" + seed);
+            assertEquals(120, first.filled(), "seed=" + seed);
+            // 3 个 Acquire，每个 120 个 key 按 7 个一批
+            assertEquals(3 * 18, first.calls(), "seed=" + seed);
+        }
+    }
+
+    /**
+     * 分批请求超时：等待按虚拟时钟在 30 秒时结束，超时的批次在 runUntilIdle 中执行完毕，不会再为数据赋值
+     */
+    @Test
+    void parallelExecuteTimeout() {
+        int timedOut = 0;
+        for (long seed = 0; seed < SEEDS; seed++) {
+            SimulationScheduler scheduler = new SimulationScheduler(seed);
+            SimulatedFetcher<Integer, String> fetcher = SimulatedFetcher.of(scheduler, SimulationScenarioTest::values)
+                    .latency(LatencyDistribution.fixed(Duration.ofMillis(10)).withTail(0.05, Duration.ofSeconds(40)));
+            List<Row> rows = rows(50);
+            Assign<Row> assign = Assign.build(rows).parallel(scheduler)
+                    .addAcquire(fetcher).batchSize(5)
+                    .addAction(Row::getUid).addAssemble(Function.identity(), Row::setName)
+                    .backAcquire().backAssign();
+            boolean failed;
+            try {
+                assign.invoke();
+                failed = false;
+            } catch (BaseException e) {
+                failed = true;
+            }
+            if (failed) {
+                timedOut++;
+                assertEquals(Duration.ofSeconds(30), scheduler.elapsed(), "seed=" + seed);
+                assertTrue(scheduler.getPending() > 0, "seed=" + seed);
+                scheduler.runUntilIdle();
+                assertEquals(0, scheduler.getPending(), "seed=" + seed);
+                assertTrue(scheduler.elapsed().compareTo(Duration.ofSeconds(40)) > 0, "seed=" + seed);
+                assertTrue(rows.stream().allMatch(r -> Objects.isNull(r.name)), "seed=" + seed);
+            } else {
+                assertEquals(Duration.ofMillis(10), scheduler.elapsed(), "seed=" + seed);
+                assertEquals(0, scheduler.getPending(), "seed=" + seed);
+                assertTrue(rows.stream().allMatch(r -> ("v" + r.uid).equals(r.name)), "seed=" + seed);
+            }
+        }
+        // 种子固定，两种情况都应出现
+        assertTrue(timedOut > 0 && timedOut < SEEDS, "timedOut=" + timedOut);
+    }
+
+    private Outcome runPartitions(long seed) {
+        SimulationScheduler scheduler = new SimulationScheduler(seed);
+        LatencyDistribution latency = LatencyDistribution.uniform(Duration.ofMillis(1), Duration.ofMillis(50));
+        List<SimulatedFetcher<Integer, String>> fetchers = List.of(
+                SimulatedFetcher.of(scheduler, SimulationScenarioTest::values).latency(latency),
+                SimulatedFetcher.of(scheduler, SimulationScenarioTest::values).latency(latency),
+                SimulatedFetcher.of(scheduler, SimulationScenarioTest::values).latency(latency));
+        List<Row> rows = rows(120);
+        Assign.build(rows).parallel(scheduler)
+                .addAcquire(fetchers.get(0)).batchSize(7)
+                .addAction(Row::getUid).addAssemble(Function.identity(), Row::setName)
+                .backAcquire().backAssign()
+                .addAcquire(fetchers.get(1)).batchSize(7)
+                .addAction(Row::getUid).addAssemble(Function.identity(), Row::setDept)
+                .backAcquire().backAssign()
+                .addAcquire(fetchers.get(2)).batchSize(7)
+                .addAction(Row::getUid).addAssemble(Function.identity(), Row::setTitle)
+                .backAcquire().backAssign()
+                .invoke();
+        long filled = rows.stream()
+                .filter(r -> ("v" + r.uid).equals(r.name) && ("v" + r.uid).equals(r.dept) && ("v" + r.uid).equals(r.title))
+                .count();
+        long calls = fetchers.stream().mapToLong(SimulatedFetcher::getCalls).sum();
+        return new Outcome(scheduler.elapsed(), filled, calls, scheduler.getPending());
+    }
+
+    private static List<Row> rows(int size) {
+        List<Row> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Row(i));
+        }
+        return rows;
+    }
+
+    private static Map<Integer, String> values(Collection<Integer> ks) {
+        Map<Integer, String> result = HashMap.newHashMap(ks.size());
+        ks.forEach(k -> result.put(k, "v" + k));
+        return result;
+    }
+
+    private record Outcome(Duration elapsed, long filled, long calls, long pending) {
+    }
+
+    private static final class Row {
+        private final Integer uid;
+        private String name;
+        private String dept;
+        private String title;
+
+        private Row(Integer uid) {
+            this.uid = uid;
+        }
+
+        private Integer getUid() {
+            return this.uid;
+        }
+
+        private void setName(String name) {
+            this.name = name;
+        }
+
+        private void setDept(String dept) {
+            this.dept = dept;
+        }
+
+        private void setTitle(String title) {
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.source.utility.assign.testing;
+
+import org.junit.jupiter.api.Test;
+import org.source.utility.assign.Assign;
+import org.source.utility.assign.BoundedCacheHandler;
+import org.source.utility.assign.CacheHandler;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据获取路径上的虚拟线程固定检测
+ *
+ * @author zengfugen
+ */
+class PinningDetectorTest {
+
+    /**
+     * 分批、缓存的数据获取在虚拟线程中执行，不应固定载体线程
+     */
+    @Test
+    void batchedCachedFetchDoesNotPin() {
+        CacheHandler cacheHandler = new BoundedCacheHandler(10_000);
+        AtomicInteger calls = new AtomicInteger();
+        try (PinningDetector detector = PinningDetector.start(Duration.ZERO, null)) {
+            // 第二次执行全部命中缓存
+            for (int round = 0; round < 2; round++) {
+                List<Row> rows = rows(2000);
+                Assign.build(rows).name("pinning").parallelVirtual()
+                        .addAcquire((Collection<Integer> ks) -> {
+                            calls.incrementAndGet();
+                            sleep(Duration.ofMillis(5));
+                            return values(ks);
+                        }).name("value").cache(cacheHandler).batchSize(50)
+                        .addAction(Row::getUid).addAssemble(Function.identity(), Row::setName)
+                        .backAcquire().backAssign()
+                        .invoke();
+                assertTrue(rows.stream().allMatch(r -> ("v" + r.uid).equals(r.name)));
+            }
+            detector.stop();
+            assertEquals(0, detector.getCount(), String.valueOf(detector.getEvents()));
+        }
+        assertEquals(40, calls.get());
+    }
+
+    /**
+     * 对照：在 synchronized 块中阻塞的虚拟线程会被检测到，确保上面的结果不是因为没有记录事件
+     */
+    @Test
+    void synchronizedBlockingIsDetected() throws InterruptedException {
+        Object lock = new Object();
+        try (PinningDetector detector = PinningDetector.start(Duration.ZERO, null)) {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleep(Duration.ofMillis(20));
+                }
+            }).join();
+            detector.stop();
+            assertTrue(detector.getCount() > 0);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Row> rows(int size) {
+        List<Row> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Row(i));
+        }
+        return rows;
+    }
+
+    private static Map<Integer, String> values(Collection<Integer> ks) {
+        Map<Integer, String> result = HashMap.newHashMap(ks.size());
+        ks.forEach(k -> result.put(k, "v" + k));
+        return result;
+    }
+
+    private static final class Row {
+        private final Integer uid;
+        private String name;
+
+        private Row(Integer uid) {
+            this.uid = uid;
+        }
+
+        private Integer getUid() {
+            return this.uid;
+        }
+
+        private void setName(String name) {
+            this.name = name;
+        }
+    }
+}